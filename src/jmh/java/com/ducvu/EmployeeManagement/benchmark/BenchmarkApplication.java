@@ -0,0 +1,67 @@
+package com.ducvu.EmployeeManagement.benchmark;
+
+import com.ducvu.EmployeeManagement.EmployeeManagementApplication;
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.repository.EmployeeBatchRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application against a private in-memory H2 database, without the per client rate limit.
+ */
+final class BenchmarkApplication {
+    static final String EMAIL_DOMAIN = "@benchmark.com";
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    static ConfigurableApplicationContext startWeb(String... properties) {
+        List<String> webProperties = new ArrayList<>(List.of(properties));
+        webProperties.add("server.port=0");
+        return start(WebApplicationType.SERVLET, webProperties.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        List<String> defaults = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.show-sql=false",
+                "spring.sql.init.mode=never",
+                "employee.rate-limit.enabled=false",
+                "logging.level.root=WARN"));
+        defaults.addAll(List.of(properties));
+        return new SpringApplicationBuilder(EmployeeManagementApplication.class)
+                .web(webApplicationType)
+                .properties(defaults.toArray(String[]::new))
+                .run();
+    }
+
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        EmployeeBatchRepository batchRepository = context.getBean(EmployeeBatchRepository.class);
+        List<Employee> batch = new ArrayList<>(1000);
+        for (int i = 0; i < rows; i++) {
+            batch.add(employee("seed" + i));
+            if (batch.size() == 1000) {
+                batchRepository.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchRepository.insertAll(batch);
+        }
+    }
+
+    static Employee employee(String name) {
+        return new Employee(name, "Benchmark", name + EMAIL_DOMAIN, "Department" + Math.floorMod(name.hashCode(), 20));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ducvu.EmployeeManagement.benchmark;
+
+import com.ducvu.EmployeeManagement.model.EmployeeSearchHit;
+import com.ducvu.EmployeeManagement.service.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the trigram index with the SQL substring search it replaces. The SQL query can only find exact
+ * substrings; the index is also queried with a misspelling to show it costs about the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class EmployeeFuzzySearchBenchmark {
+    private static final String LIKE_SQL = "SELECT id, first_name, last_name, email, department FROM employee "
+            + "WHERE LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ? OR LOWER(email) LIKE ? OR LOWER(department) LIKE ? "
+            + "LIMIT 20";
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeSearchIndex index;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, rows);
+        index = context.getBean(EmployeeSearchIndex.class);
+        index.rebuild();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        System.out.printf("%nIndex of %d employees uses about %d MB%n", index.size(), index.estimatedBytes() / (1024 * 1024));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EmployeeSearchHit> index() {
+        return index.search("seed" + randomRow(), 20);
+    }
+
+    @Benchmark
+    public List<EmployeeSearchHit> indexMisspelled() {
+        return index.search("sed" + randomRow() + " benchmrk", 20);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sqlLike() {
+        String pattern = "%seed" + randomRow() + "%";
+        return jdbcTemplate.queryForList(LIKE_SQL, pattern, pattern, pattern, pattern);
+    }
+
+    private int randomRow() {
+        return ThreadLocalRandom.current().nextInt(rows);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ducvu.EmployeeManagement.benchmark;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.ImportResult;
+import com.ducvu.EmployeeManagement.service.EmployeeImportService;
+import com.ducvu.EmployeeManagement.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating employees one request at a time with the chunked bulk import. Scores are per employee.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class EmployeeImportBenchmark {
+    private static final int EMPLOYEES_PER_INVOCATION = 1000;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeImportService employeeImportService;
+    private ObjectMapper objectMapper;
+    private int invocation;
+    private List<Employee> employees;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        employeeService = context.getBean(EmployeeService.class);
+        employeeImportService = context.getBean(EmployeeImportService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextEmployees() throws IOException {
+        invocation++;
+        employees = new ArrayList<>(EMPLOYEES_PER_INVOCATION);
+        for (int i = 0; i < EMPLOYEES_PER_INVOCATION; i++) {
+            employees.add(BenchmarkApplication.employee("import" + invocation + "_" + i));
+        }
+        json = objectMapper.writeValueAsBytes(employees);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES_PER_INVOCATION)
+    public void singleInserts() {
+        employees.forEach(employeeService::addEmployee);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMPLOYEES_PER_INVOCATION)
+    public ImportResult bulkImport() throws IOException {
+        return employeeImportService.importJson(new ByteArrayInputStream(json));
+    }
+}
@@ -0,0 +1,105 @@
+package com.ducvu.EmployeeManagement.benchmark;
+
+import com.ducvu.EmployeeManagement.load.EmployeeInvariants;
+import com.ducvu.EmployeeManagement.load.EmployeeWorkload;
+import com.ducvu.EmployeeManagement.service.DepartmentHeadcountService;
+import com.ducvu.EmployeeManagement.service.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load and soak scenario for the employee API over HTTP. Readers and writers run side by side against a seeded
+ * database, with writers colliding on a small pool of emails and on the same rows (see {@link EmployeeWorkload}).
+ * Sample time mode reports throughput with p50, p99 and p99.9 latency for reads and writes separately.
+ * <p>
+ * The trial fails if any call was answered with a status it should never get, or if {@link EmployeeInvariants}
+ * are broken once the load stops. Headcounts are not reconciled during the run so drift stays visible. Set the
+ * concurrency with {@code -tg readers,writers} and make it a soak test with {@code -i} and {@code -r}, e.g.
+ * {@code -tg 48,16 -i 1 -r 30m}. Client threads draw from random generators seeded with their index, so a run
+ * issues the same requests each time, up to how threads interleave.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class EmployeeLoadBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"1000"})
+    private int emails;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeWorkload workload;
+
+    @State(Scope.Thread)
+    public static class Client {
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams params) {
+            random = new SplittableRandom(params.getThreadIndex());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startWeb("employee.headcount.reconcile-interval=P1D");
+        BenchmarkApplication.seed(context, rows);
+        context.getBean(EmployeeSearchIndex.class).rebuild();
+        context.getBean(DepartmentHeadcountService.class).reload();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        workload = new EmployeeWorkload("http://localhost:" + port + "/api/v1/employees", emails, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            List<String> violations = new ArrayList<>(workload.unexpected());
+            violations.addAll(EmployeeInvariants.violations(context));
+            if (!violations.isEmpty()) {
+                throw new IllegalStateException("Broken after load:\n" + String.join("\n", violations));
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(24)
+    public int read(Client client) {
+        return workload.read(client.random);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public int write(Client client) {
+        return workload.write(client.random);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ducvu.EmployeeManagement.benchmark;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeFieldsPage;
+import com.ducvu.EmployeeManagement.model.EmployeePage;
+import com.ducvu.EmployeeManagement.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class EmployeeServiceBenchmark {
+
+    private static final List<String> DISPLAY_FIELDS = List.of("firstName", "lastName");
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"caffeine", "none"})
+    private String cacheType;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("spring.cache.type=" + cacheType);
+        BenchmarkApplication.seed(context, rows);
+        employeeService = context.getBean(EmployeeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee getById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public Employee add() {
+        return employeeService.addEmployee(BenchmarkApplication.employee("add" + sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Employee update() {
+        long id = randomId();
+        Employee employee = BenchmarkApplication.employee("update" + sequence.incrementAndGet());
+        return employeeService.updateEmployee(employee, id);
+    }
+
+    @Benchmark
+    public EmployeePage list() {
+        return employeeService.getEmployees(randomId(), EmployeeService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public EmployeeFieldsPage listFields() {
+        return employeeService.getEmployees(randomId(), EmployeeService.DEFAULT_PAGE_SIZE, DISPLAY_FIELDS);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ducvu.EmployeeManagement.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With {@code employee.startup.exit-when-ready=true} the application stops as soon as it has started. The Docker
+ * build runs it this way once to record the classes loaded during startup in a class data sharing archive.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.startup.exit-when-ready", havingValue = "true")
+public class ExitWhenReadyConfig {
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> exitWhenReady() {
+        return event -> System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
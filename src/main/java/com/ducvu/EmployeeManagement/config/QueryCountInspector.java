@@ -0,0 +1,25 @@
+package com.ducvu.EmployeeManagement.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so a request can report how many
+ * queries it issued.
+ */
+public class QueryCountInspector implements StatementInspector {
+    private final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        count.get()[0]++;
+        return sql;
+    }
+
+    public void reset() {
+        count.get()[0] = 0;
+    }
+
+    public int getCount() {
+        return count.get()[0];
+    }
+}
@@ -0,0 +1,45 @@
+package com.ducvu.EmployeeManagement.config;
+
+import com.ducvu.EmployeeManagement.filter.LoadShedder;
+import com.ducvu.EmployeeManagement.filter.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rate limits the employee API per client. Runs ahead of the other filters, so a rejected request costs neither
+ * a concurrency permit nor a database connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employee.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public LoadShedder loadShedder(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        RateLimitProperties.Shedding shedding = properties.shedding();
+        return new LoadShedder(meterRegistry, shedding.latencyThreshold(), shedding.poolWaitThreshold(), shedding.cost());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties, LoadShedder loadShedder,
+                                                                   MeterRegistry meterRegistry) {
+        List<RateLimitFilter.Route> routes = new ArrayList<>(properties.routes() == null ? List.of() : properties.routes());
+        routes.add(new RateLimitFilter.Route("default", null, "/**", properties.requestsPerSecond(), properties.burst()));
+        RateLimitFilter filter = new RateLimitFilter(routes,
+                properties.apiKeys() == null ? Set.of() : properties.apiKeys(), loadShedder, meterRegistry,
+                properties.maxClients(), properties.clientIdleTimeout(), System::nanoTime);
+
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/employees", "/api/v1/employees/*");
+        registration.setOrder(0);
+        return registration;
+    }
+}
@@ -0,0 +1,25 @@
+package com.ducvu.EmployeeManagement.config;
+
+import com.ducvu.EmployeeManagement.filter.RateLimitFilter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@code employee.rate-limit.*}: per route limits, checked in order, then the default limit for every other
+ * employee API request. Only the listed API keys identify a client; any other request is limited by address.
+ */
+@ConfigurationProperties("employee.rate-limit")
+public record RateLimitProperties(List<RateLimitFilter.Route> routes,
+                                  Set<String> apiKeys,
+                                  double requestsPerSecond,
+                                  int burst,
+                                  int maxClients,
+                                  Duration clientIdleTimeout,
+                                  Shedding shedding) {
+
+    public record Shedding(Duration latencyThreshold, Duration poolWaitThreshold, double cost) {
+    }
+}
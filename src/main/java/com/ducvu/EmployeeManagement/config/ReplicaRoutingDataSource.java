@@ -0,0 +1,97 @@
+package com.ducvu.EmployeeManagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else.
+ * Once a request has run a read-write transaction, its later reads also go to the primary so it sees its own
+ * writes. When the replica cannot give a connection, reads fall back to the primary and the replica is
+ * skipped until {@code retryInterval} has passed.
+ * <p>
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction manager asks for a connection before the read-only flag is bound to the thread.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    static final String WROTE_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".WROTE";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Duration retryInterval;
+    private final Clock clock;
+    private final Counter fallbacks;
+    private volatile Instant replicaDownUntil = Instant.MIN;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration retryInterval,
+                                    Clock clock, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryInterval = retryInterval;
+        this.clock = clock;
+        this.fallbacks = Counter.builder("employee.datasource.replica.fallback")
+                .description("Read-only transactions sent to the primary because the replica was unavailable")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return connector.connect(primary);
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markRequestWrote();
+            return connector.connect(primary);
+        }
+        if (requestWrote() || clock.instant().isBefore(replicaDownUntil)) {
+            return connector.connect(primary);
+        }
+        try {
+            return connector.connect(replica);
+        } catch (SQLException ex) {
+            replicaDownUntil = clock.instant().plus(retryInterval);
+            fallbacks.increment();
+            log.warn("Replica unavailable, reading from the primary for {}: {}", retryInterval, ex.getMessage());
+            return connector.connect(primary);
+        }
+    }
+
+    private static void markRequestWrote() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static boolean requestWrote() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ducvu.EmployeeManagement.controller;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.WriteStatus;
+import com.ducvu.EmployeeManagement.service.EmployeeWriteBehindService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.UUID;
+
+@CrossOrigin("http://localhost:3000")
+@RestController
+@Timed(value = "employee.controller", histogram = true)
+@RequestMapping("api/v1/employees/async")
+@ConditionalOnProperty(name = "employee.writes.async.enabled", havingValue = "true")
+public class EmployeeAsyncWriteController {
+    private final EmployeeWriteBehindService employeeWriteBehindService;
+
+    @Autowired
+    public EmployeeAsyncWriteController(EmployeeWriteBehindService employeeWriteBehindService) {
+        this.employeeWriteBehindService = employeeWriteBehindService;
+    }
+
+    @PostMapping
+    public ResponseEntity<WriteStatus> addEmployee(@RequestBody Employee employee) {
+        return accepted(employeeWriteBehindService.submitAdd(employee));
+    }
+
+    @PutMapping("/update/{id}")
+    public ResponseEntity<WriteStatus> updateEmployee(@RequestBody Employee employee, @PathVariable Long id) {
+        return accepted(employeeWriteBehindService.submitUpdate(employee, id));
+    }
+
+    @GetMapping("/{trackingId}")
+    public ResponseEntity<WriteStatus> getStatus(@PathVariable UUID trackingId) {
+        return new ResponseEntity<>(employeeWriteBehindService.getStatus(trackingId), HttpStatus.OK);
+    }
+
+    private static ResponseEntity<WriteStatus> accepted(WriteStatus status) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/employees/async/{trackingId}")
+                        .buildAndExpand(status.trackingId())
+                        .toUri())
+                .body(status);
+    }
+}
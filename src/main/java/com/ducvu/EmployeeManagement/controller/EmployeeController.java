@@ -1,42 +1,169 @@
 package com.ducvu.EmployeeManagement.controller;
 
+import com.ducvu.EmployeeManagement.model.BulkDelete;
+import com.ducvu.EmployeeManagement.model.BulkDepartmentUpdate;
+import com.ducvu.EmployeeManagement.model.BulkResult;
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
 import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeChangePage;
+import com.ducvu.EmployeeManagement.model.EmployeeFieldsPage;
+import com.ducvu.EmployeeManagement.model.EmployeePage;
+import com.ducvu.EmployeeManagement.model.EmployeePatch;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchCriteria;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchHit;
 import com.ducvu.EmployeeManagement.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @CrossOrigin("http://localhost:3000")
 @RestController
+@Timed(value = "employee.controller", histogram = true)
 @RequestMapping("api/v1/employees")
 public class EmployeeController {
+    /**
+     * The encodings employees are written in, in order of preference, with the suffix of their entity tags.
+     */
+    private static final Map<MediaType, String> ENCODING_SUFFIXES = new LinkedHashMap<>();
+
+    static {
+        ENCODING_SUFFIXES.put(MediaType.APPLICATION_JSON, "");
+        ENCODING_SUFFIXES.put(MediaType.APPLICATION_CBOR, "-cbor");
+        ENCODING_SUFFIXES.put(new MediaType("application", "x-jackson-smile"), "-smile");
+    }
+
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public ResponseEntity<List<Employee>> getEmployees() {
-        return new ResponseEntity<>(employeeService.getAllEmployees(), HttpStatus.OK);
+    public ResponseEntity<EmployeePage> getEmployees(@RequestParam(required = false) Long after,
+                                                     @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int limit,
+                                                     WebRequest request) {
+        String eTag = employeeService.getEmployeesETag();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ok(eTag).body(employeeService.getEmployees(after, limit));
+    }
+
+    /**
+     * Sparse variant of the list, e.g. {@code ?fields=firstName,lastName}. Only the requested columns are read.
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<EmployeeFieldsPage> getEmployeeFields(@RequestParam List<String> fields,
+                                                                @RequestParam(required = false) Long after,
+                                                                @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int limit,
+                                                                WebRequest request) {
+        String eTag = employeeService.getEmployeesETag();
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ok(eTag).body(employeeService.getEmployees(after, limit, fields));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<EmployeePage> searchEmployees(@RequestParam(required = false) String department,
+                                                        @RequestParam(required = false) String firstName,
+                                                        @RequestParam(required = false) String lastName,
+                                                        @RequestParam(required = false) Long after,
+                                                        @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int limit) {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(department, firstName, lastName);
+        return new ResponseEntity<>(employeeService.searchEmployees(criteria, after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/search", params = "fields")
+    public ResponseEntity<EmployeeFieldsPage> searchEmployeeFields(@RequestParam List<String> fields,
+                                                                   @RequestParam(required = false) String department,
+                                                                   @RequestParam(required = false) String firstName,
+                                                                   @RequestParam(required = false) String lastName,
+                                                                   @RequestParam(required = false) Long after,
+                                                                   @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int limit) {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(department, firstName, lastName);
+        return new ResponseEntity<>(employeeService.searchEmployees(criteria, after, limit, fields), HttpStatus.OK);
+    }
+
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<EmployeeSearchHit>> fuzzySearch(@RequestParam String q,
+                                                               @RequestParam(defaultValue = "20") int limit) {
+        return new ResponseEntity<>(employeeService.fuzzySearch(q, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<EmployeeChangePage> getChanges(@RequestParam(required = false) Long after,
+                                                         @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int limit) {
+        return new ResponseEntity<>(employeeService.getChanges(after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/aggregates/headcount")
+    public ResponseEntity<List<DepartmentHeadcount>> getDepartmentHeadcounts() {
+        return new ResponseEntity<>(employeeService.getDepartmentHeadcounts(), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployees() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writerFor(Employee.class)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                employeeService.streamEmployees(employee -> {
+                    try {
+                        writer.write(employee);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/employee/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable Long id) {
-        return new ResponseEntity<>(employeeService.getEmployeeById(id), HttpStatus.OK);
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable Long id, WebRequest request) {
+        Employee employee = employeeService.getEmployeeById(id);
+        String eTag = eTag(employee, request);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ok(eTag).body(employee);
     }
 
     @PostMapping
@@ -49,9 +176,119 @@ public class EmployeeController {
         return new ResponseEntity<>(employeeService.updateEmployee(employee, id), HttpStatus.OK);
     }
 
+    @PatchMapping("/update/{id}")
+    public ResponseEntity<Employee> patchEmployee(@RequestBody EmployeePatch patch, @PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  WebRequest request) {
+        Employee employee = employeeService.patchEmployee(id, patch, versions(ifMatch));
+        return ok(eTag(employee, request)).body(employee);
+    }
+
     @DeleteMapping("/delete/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteEmployee(@PathVariable Long id) {
         employeeService.deleteEmployee(id);
     }
+
+    @PutMapping("/restore/{id}")
+    public ResponseEntity<Employee> restoreEmployee(@PathVariable Long id) {
+        return new ResponseEntity<>(employeeService.restoreEmployee(id), HttpStatus.OK);
+    }
+
+    @PutMapping("/bulk/department")
+    public ResponseEntity<BulkResult> updateDepartments(@RequestBody BulkDepartmentUpdate update) {
+        return new ResponseEntity<>(employeeService.updateDepartments(update), HttpStatus.OK);
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResult> deleteEmployees(@RequestBody BulkDelete delete) {
+        return new ResponseEntity<>(employeeService.deleteEmployees(delete), HttpStatus.OK);
+    }
+
+    private static ResponseEntity.BodyBuilder ok(String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        return eTag == null ? response : response.eTag(eTag);
+    }
+
+    /**
+     * Strong entity tag of the employee in the encoding the client accepts, e.g. {@code "3"} for version 3 in JSON
+     * and {@code "3-cbor"} in CBOR, since the bytes of each encoding differ. A single employee is smaller than the
+     * compression threshold, and Tomcat never compresses a response with a strong tag, so gzip does not change them.
+     */
+    private static String eTag(Employee employee, WebRequest request) {
+        return "\"" + employee.getVersion() + ENCODING_SUFFIXES.get(encoding(request.getHeader(HttpHeaders.ACCEPT))) + "\"";
+    }
+
+    /**
+     * The encoding a response is written in: the first one the most preferred accepted media type includes, JSON
+     * when nothing more specific is asked for.
+     */
+    private static MediaType encoding(String accept) {
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            return MediaType.APPLICATION_JSON;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+                .thenComparing(MediaType::isWildcardType)
+                .thenComparing(MediaType::isWildcardSubtype));
+        for (MediaType type : accepted) {
+            for (MediaType encoding : ENCODING_SUFFIXES.keySet()) {
+                if (type.includes(encoding)) {
+                    return encoding;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Versions accepted by an If-Match header, a comma separated list of entity tags, or null when any version is.
+     * If-Match uses the strong comparison (RFC 9110), so weak tags never match, and neither do tags that are not
+     * ours. The tag of any encoding matches. Nothing after a malformed tag is read.
+     */
+    private static Set<Long> versions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        int i = 0;
+        while (i < ifMatch.length()) {
+            char c = ifMatch.charAt(i);
+            if (c == ',' || c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            boolean weak = ifMatch.startsWith("W/", i);
+            int open = weak ? i + 2 : i;
+            int close = ifMatch.indexOf('"', open + 1);
+            if (open >= ifMatch.length() || ifMatch.charAt(open) != '"' || close < 0) {
+                break;
+            }
+            Long version = weak ? null : version(ifMatch.substring(open + 1, close));
+            if (version != null) {
+                versions.add(version);
+            }
+            i = close + 1;
+        }
+        return versions;
+    }
+
+    /**
+     * The version in the opaque part of one of our tags, e.g. 3 for {@code 3-cbor}, or null for any other tag.
+     */
+    private static Long version(String tag) {
+        int suffix = tag.indexOf('-');
+        String number = suffix < 0 ? tag : tag.substring(0, suffix);
+        if (number.isEmpty() || !number.chars().allMatch(Character::isDigit)
+                || !ENCODING_SUFFIXES.containsValue(suffix < 0 ? "" : tag.substring(suffix))) {
+            return null;
+        }
+        try {
+            return Long.valueOf(number);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
 }
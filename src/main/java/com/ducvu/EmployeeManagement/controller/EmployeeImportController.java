@@ -0,0 +1,41 @@
+package com.ducvu.EmployeeManagement.controller;
+
+import com.ducvu.EmployeeManagement.model.ImportResult;
+import com.ducvu.EmployeeManagement.service.EmployeeImportService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@CrossOrigin("http://localhost:3000")
+@RestController
+@Timed(value = "employee.controller", histogram = true)
+@RequestMapping("api/v1/employees")
+public class EmployeeImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final EmployeeImportService employeeImportService;
+
+    @Autowired
+    public EmployeeImportController(EmployeeImportService employeeImportService) {
+        this.employeeImportService = employeeImportService;
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportResult> importJson(InputStream body) throws IOException {
+        return new ResponseEntity<>(employeeImportService.importJson(body), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ImportResult> importCsv(InputStream body) throws IOException {
+        return new ResponseEntity<>(employeeImportService.importCsv(body), HttpStatus.OK);
+    }
+}
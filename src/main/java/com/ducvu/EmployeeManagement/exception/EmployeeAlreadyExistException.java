@@ -1,7 +1,46 @@
 package com.ducvu.EmployeeManagement.exception;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+
 public class EmployeeAlreadyExistException extends RuntimeException {
+
+    /**
+     * The unique index on the email of live employees, and the index on email it replaced.
+     */
+    private static final List<String> EMAIL_CONSTRAINTS = List.of("uk_employee_live_email", "uk_employee_email");
+
     public EmployeeAlreadyExistException(String message) {
         super(message);
     }
+
+    /**
+     * Whether the violation is a duplicate email, as opposed to any other constraint such as a column that is too
+     * long or must not be null. Writes through JPA carry the constraint name reported by Hibernate, writes through
+     * JDBC only the driver's message, which names the index as well.
+     */
+    public static boolean isDuplicateEmail(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return isEmailConstraint(violation.getConstraintName());
+            }
+            if (cause instanceof SQLException sqlException) {
+                return isEmailConstraint(sqlException.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEmailConstraint(String name) {
+        if (name == null) {
+            return false;
+        }
+        // H2 reports the index name upper case and MySQL prefixes it with the table name
+        String lowerCase = name.toLowerCase(Locale.ROOT);
+        return EMAIL_CONSTRAINTS.stream().anyMatch(lowerCase::contains);
+    }
 }
@@ -1,17 +1,26 @@
 package com.ducvu.EmployeeManagement.exception;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 @RestControllerAdvice
 public class ExceptionControllerAdvice {
 
+    private static final int MYSQL_COLUMN_CANNOT_BE_NULL = 1048;
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public Map<String, String> handleException(MethodArgumentNotValidException ex) {
@@ -37,4 +46,80 @@ public class ExceptionControllerAdvice {
         error.put("error", ex.getMessage());
         return error;
     }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidRequestException.class)
+    public Map<String, String> invalidRequest(InvalidRequestException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return error;
+    }
+
+    /**
+     * Only a violation of the unique email index is reported as a duplicate. A value the columns cannot hold is
+     * the client's mistake, any other violation is ours.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> dataIntegrityViolation(DataIntegrityViolationException ex) {
+        if (EmployeeAlreadyExistException.isDuplicateEmail(ex)) {
+            return ResponseEntity.badRequest()
+                    .body(employeeAlreadyExist(new EmployeeAlreadyExistException("Employee with this email already exist!")));
+        }
+        Map<String, String> error = new HashMap<>();
+        if (isInvalidValue(ex)) {
+            error.put("error", "Employee has a value that is too long or missing");
+            return ResponseEntity.badRequest().body(error);
+        }
+        log.error("Employee write violated a database constraint", ex);
+        error.put("error", "Employee could not be saved");
+        return ResponseEntity.internalServerError().body(error);
+    }
+
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    @ExceptionHandler(WriteStatusNotFoundException.class)
+    public Map<String, String> writeStatusNotFound(WriteStatusNotFoundException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return error;
+    }
+
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<Map<String, String>> writeQueueFull(WriteQueueFullException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(PreconditionFailedException.class)
+    public Map<String, String> preconditionFailed(PreconditionFailedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return error;
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public Map<String, String> optimisticLockingFailure(OptimisticLockingFailureException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Employee was modified by another request, reload it and try again");
+        return error;
+    }
+
+    /**
+     * SQL state class 22 is a data exception such as a value too long for its column, 23502 a null in a column
+     * that must not be null. MySQL reports the latter as the generic 23000 with vendor code 1048.
+     */
+    private static boolean isInvalidValue(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                String state = sqlException.getSQLState();
+                return state != null && (state.startsWith("22") || state.equals("23502"))
+                        || sqlException.getErrorCode() == MYSQL_COLUMN_CANNOT_BE_NULL;
+            }
+        }
+        return false;
+    }
 }
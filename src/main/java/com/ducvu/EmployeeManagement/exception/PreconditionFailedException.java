@@ -0,0 +1,7 @@
+package com.ducvu.EmployeeManagement.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
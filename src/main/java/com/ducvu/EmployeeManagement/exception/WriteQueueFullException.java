@@ -0,0 +1,7 @@
+package com.ducvu.EmployeeManagement.exception;
+
+public class WriteQueueFullException extends RuntimeException {
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ducvu.EmployeeManagement.exception;
+
+public class WriteStatusNotFoundException extends RuntimeException {
+    public WriteStatusNotFoundException(String message) {
+        super(message);
+    }
+}
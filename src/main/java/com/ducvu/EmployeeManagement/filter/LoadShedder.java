@@ -0,0 +1,90 @@
+package com.ducvu.EmployeeManagement.filter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether the service is overloaded from the mean request latency and the mean connection pool wait
+ * since the previous sample. While it is, every request costs {@code cost} tokens instead of one, so the
+ * clients sending the most requests are limited first.
+ */
+public class LoadShedder {
+    private static final Logger log = LoggerFactory.getLogger(LoadShedder.class);
+    static final String POOL_ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final MeterRegistry meterRegistry;
+    private final long latencyThresholdNanos;
+    private final long poolWaitThresholdNanos;
+    private final double cost;
+    private final LongAdder latencyTotal = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private double poolWaitTotal;
+    private long poolWaitCount;
+    private volatile long meanLatencyNanos;
+    private volatile long meanPoolWaitNanos;
+    private volatile boolean overloaded;
+
+    public LoadShedder(MeterRegistry meterRegistry, Duration latencyThreshold, Duration poolWaitThreshold, double cost) {
+        this.meterRegistry = meterRegistry;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.poolWaitThresholdNanos = poolWaitThreshold.toNanos();
+        this.cost = cost;
+        Gauge.builder("employee.load-shedding.active", this, shedder -> shedder.overloaded ? 1 : 0)
+                .description("1 while requests cost more tokens because the service is overloaded")
+                .register(meterRegistry);
+        Gauge.builder("employee.load-shedding.latency", this, shedder -> shedder.meanLatencyNanos / 1e9)
+                .description("Mean request latency over the last sample")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("employee.load-shedding.pool-wait", this, shedder -> shedder.meanPoolWaitNanos / 1e9)
+                .description("Mean connection pool wait over the last sample")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void record(long latencyNanos) {
+        latencyTotal.add(latencyNanos);
+        latencyCount.increment();
+    }
+
+    public double cost() {
+        return overloaded ? cost : 1;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.rate-limit.shedding.sample-interval:PT1S}")
+    public synchronized void sample() {
+        long requests = latencyCount.sumThenReset();
+        long latency = latencyTotal.sumThenReset();
+        meanLatencyNanos = requests == 0 ? 0 : latency / requests;
+
+        double waitTotal = 0;
+        long waitCount = 0;
+        for (Timer timer : meterRegistry.find(POOL_ACQUIRE_TIMER).timers()) {
+            waitTotal += timer.totalTime(TimeUnit.NANOSECONDS);
+            waitCount += timer.count();
+        }
+        long acquires = waitCount - poolWaitCount;
+        meanPoolWaitNanos = acquires <= 0 ? 0 : (long) ((waitTotal - poolWaitTotal) / acquires);
+        poolWaitTotal = waitTotal;
+        poolWaitCount = waitCount;
+
+        boolean wasOverloaded = overloaded;
+        overloaded = meanLatencyNanos > latencyThresholdNanos || meanPoolWaitNanos > poolWaitThresholdNanos;
+        if (overloaded != wasOverloaded) {
+            log.warn("Load shedding {}: mean latency {} ms, mean pool wait {} ms", overloaded ? "started" : "stopped",
+                    meanLatencyNanos / 1_000_000, meanPoolWaitNanos / 1_000_000);
+        }
+    }
+}
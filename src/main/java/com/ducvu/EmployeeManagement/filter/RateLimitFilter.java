@@ -0,0 +1,137 @@
+package com.ducvu.EmployeeManagement.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limit per client and route. Clients are identified by their {@code X-API-Key} header when it is
+ * one of the configured keys, or else by their address, so a client cannot get a fresh bucket by making up keys.
+ * Each request is matched against the routes in order; a request over its limit gets a 429 with the seconds until
+ * it would be allowed in {@code Retry-After}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<Route> routes;
+    private final Set<String> apiKeys;
+    private final LoadShedder loadShedder;
+    private final Map<String, Counters> counters = new HashMap<>();
+    private final LongSupplier nanoTime;
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * A limit for requests whose path matches {@code pattern} and, when set, whose method is {@code method}.
+     */
+    public record Route(String name, String method, String pattern, double requestsPerSecond, int burst) {
+
+        boolean matches(HttpServletRequest request) {
+            return (method == null || method.equalsIgnoreCase(request.getMethod()))
+                    && PATH_MATCHER.match(pattern, request.getRequestURI());
+        }
+    }
+
+    /**
+     * Requests checked against the limit of one route, by outcome.
+     */
+    private record Counters(Counter allowed, Counter limited, Counter shed) {
+
+        static Counters register(Route route, MeterRegistry meterRegistry) {
+            return new Counters(counter(route, "allowed", meterRegistry), counter(route, "limited", meterRegistry),
+                    counter(route, "shed", meterRegistry));
+        }
+
+        private static Counter counter(Route route, String outcome, MeterRegistry meterRegistry) {
+            return Counter.builder("employee.rate-limit.requests")
+                    .description("Requests checked against the rate limit")
+                    .tag("route", route.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+
+    public RateLimitFilter(List<Route> routes, Set<String> apiKeys, LoadShedder loadShedder, MeterRegistry meterRegistry,
+                           int maxClients, Duration clientIdleTimeout, LongSupplier nanoTime) {
+        this.routes = List.copyOf(routes);
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.loadShedder = loadShedder;
+        this.nanoTime = nanoTime;
+        this.routes.forEach(route -> counters.put(route.name(), Counters.register(route, meterRegistry)));
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(clientIdleTimeout)
+                .maximumSize(maxClients)
+                .build();
+        Gauge.builder("employee.rate-limit.clients", buckets, Cache::estimatedSize)
+                .description("Client and route pairs with a token bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = route(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long start = nanoTime.getAsLong();
+        TokenBucket bucket = buckets.get(route.name() + " " + client(request),
+                key -> new TokenBucket(route.requestsPerSecond(), route.burst(), start));
+        // a cost over the burst could never be paid, however long the client waited
+        long waitNanos = bucket.tryAcquire(start, Math.min(loadShedder.cost(), route.burst()));
+        Counters routeCounters = counters.get(route.name());
+        if (waitNanos > 0) {
+            (loadShedder.isOverloaded() ? routeCounters.shed() : routeCounters.limited()).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\"}");
+            return;
+        }
+
+        routeCounters.allowed().increment();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            loadShedder.record(nanoTime.getAsLong() - start);
+        }
+    }
+
+    private Route route(HttpServletRequest request) {
+        for (Route route : routes) {
+            if (route.matches(request)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : request.getRemoteAddr();
+    }
+}
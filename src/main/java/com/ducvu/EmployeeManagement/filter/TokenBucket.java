@@ -0,0 +1,39 @@
+package com.ducvu.EmployeeManagement.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept as a single theoretical arrival time (the generic cell rate algorithm): a request
+ * is allowed when, after paying for it, the bucket would not be more than {@code burst} requests ahead of the
+ * refill rate.
+ */
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrival;
+
+    public TokenBucket(double requestsPerSecond, int burst, long nowNanos) {
+        this.intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.toleranceNanos = intervalNanos * burst;
+        this.arrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes {@code cost} tokens if they are available. Returns 0 when they were taken, otherwise the nanoseconds
+     * until they will be.
+     */
+    public long tryAcquire(long nowNanos, double cost) {
+        long increment = (long) (intervalNanos * cost);
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, nowNanos) + increment;
+            long wait = next - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
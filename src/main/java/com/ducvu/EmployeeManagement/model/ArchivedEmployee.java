@@ -0,0 +1,10 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.time.Instant;
+
+/**
+ * A deleted employee as written to the archive when it is purged.
+ */
+public record ArchivedEmployee(Long id, String firstName, String lastName, String email, String department,
+                               Long version, Instant deletedAt) {
+}
@@ -0,0 +1,9 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.util.List;
+
+/**
+ * Deletes employees selected either by id or by department.
+ */
+public record BulkDelete(List<Long> ids, String department) {
+}
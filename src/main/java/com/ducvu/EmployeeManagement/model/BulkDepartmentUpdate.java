@@ -0,0 +1,9 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.util.List;
+
+/**
+ * Moves employees to {@code department}, selected either by id or by their current department.
+ */
+public record BulkDepartmentUpdate(List<Long> ids, String fromDepartment, String department) {
+}
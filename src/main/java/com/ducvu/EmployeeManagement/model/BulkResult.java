@@ -0,0 +1,4 @@
+package com.ducvu.EmployeeManagement.model;
+
+public record BulkResult(int affected) {
+}
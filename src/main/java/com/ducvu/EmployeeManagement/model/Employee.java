@@ -1,36 +1,89 @@
 package com.ducvu.EmployeeManagement.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.NaturalId;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Where;
 
+import java.time.Instant;
+
+/**
+ * Deleted employees keep their row, with the time of deletion, until they are purged. Every query on the entity
+ * only sees employees that are not deleted.
+ */
 @Entity
+@DynamicUpdate
+@Where(clause = "deleted_at is null")
 @Data
-@AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-@Table(name = "employee")
+@Table(name = "employee",
+        uniqueConstraints = @UniqueConstraint(name = "uk_employee_live_email", columnNames = "live_email"),
+        indexes = {
+                @Index(name = "idx_employee_department", columnList = "department"),
+                @Index(name = "idx_employee_last_first_name", columnList = "last_name, first_name"),
+                @Index(name = "idx_employee_deleted_at", columnList = "deleted_at")
+        })
 public class Employee {
+    public static final int NAME_LENGTH = 30;
+    public static final int EMAIL_LENGTH = 255;
+    public static final int DEPARTMENT_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
     private Long id;
-    @Column(name = "first_name")
+    @Column(name = "first_name", length = NAME_LENGTH)
     private String firstName;
-    @Column(name = "last_name")
+    @Column(name = "last_name", length = NAME_LENGTH)
     private String lastName;
-    @Column(name = "email")
-    @NaturalId(mutable = true)
+    @Column(name = "email", length = EMAIL_LENGTH)
     private String email;
-    @Column(name = "department")
+    @Column(name = "department", length = DEPARTMENT_LENGTH)
     private String department;
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    @Column(name = "deleted_at")
+    @JsonIgnore
+    private Instant deletedAt;
+    /**
+     * The email while the employee is not deleted, maintained by the database. Its unique index only holds the
+     * emails of live employees, so the email of a deleted employee can be given to someone else, and queries by
+     * email go through it instead of filtering deleted rows.
+     */
+    @Column(name = "live_email", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (case when deleted_at is null then email end)")
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String liveEmail;
+
+    public Employee(Long id, String firstName, String lastName, String email, String department, Long version) {
+        this(id, firstName, lastName, email, department);
+        this.version = version;
+    }
+
+    public Employee(Long id, String firstName, String lastName, String email, String department) {
+        this(firstName, lastName, email, department);
+        this.id = id;
+    }
 
     public Employee(String firstName, String lastName, String email, String department) {
         this.firstName = firstName;
@@ -0,0 +1,64 @@
+package com.ducvu.EmployeeManagement.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One entry of the append-only employee change log. Created and updated entries carry the employee as it was
+ * after the change; deleted entries are tombstones that only carry the employee id.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "employee_change",
+        indexes = @Index(name = "idx_employee_change_employee_id", columnList = "employee_id"))
+public class EmployeeChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "seq")
+    private Long sequence;
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 10)
+    private Type type;
+    @Column(name = "first_name", length = Employee.NAME_LENGTH)
+    private String firstName;
+    @Column(name = "last_name", length = Employee.NAME_LENGTH)
+    private String lastName;
+    @Column(name = "email")
+    private String email;
+    @Column(name = "department")
+    private String department;
+    @Column(name = "version")
+    private Long version;
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public EmployeeChange(Type type, Employee employee, Instant changedAt) {
+        this(null, employee.getId(), type, employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                employee.getDepartment(), employee.getVersion(), changedAt);
+    }
+
+    public EmployeeChange(Long employeeId, Instant changedAt) {
+        this(null, employeeId, Type.DELETED, null, null, null, null, null, changedAt);
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
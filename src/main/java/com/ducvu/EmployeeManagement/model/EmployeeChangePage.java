@@ -0,0 +1,10 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.util.List;
+
+/**
+ * A page of the change log. {@code nextCursor} is the sequence to pass as {@code after} on the next poll; it stays
+ * at the requested position when there are no new changes.
+ */
+public record EmployeeChangePage(List<EmployeeChange> changes, Long nextCursor) {
+}
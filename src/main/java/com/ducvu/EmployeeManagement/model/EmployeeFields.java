@@ -0,0 +1,12 @@
+package com.ducvu.EmployeeManagement.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An employee read with only some of its columns. Fields that were not selected are null and left out of the
+ * JSON, as are selected fields without a value, such as a missing department.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EmployeeFields(Long id, String firstName, String lastName, String email, String department,
+                             Long version) {
+}
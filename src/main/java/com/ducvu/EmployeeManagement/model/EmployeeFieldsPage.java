@@ -0,0 +1,6 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.util.List;
+
+public record EmployeeFieldsPage(List<EmployeeFields> employees, Long nextCursor) {
+}
@@ -0,0 +1,6 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.util.List;
+
+public record EmployeePage(List<Employee> employees, Long nextCursor) {
+}
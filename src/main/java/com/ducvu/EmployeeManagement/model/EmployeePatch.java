@@ -0,0 +1,7 @@
+package com.ducvu.EmployeeManagement.model;
+
+/**
+ * Partial update of an employee. Fields left null are not changed.
+ */
+public record EmployeePatch(String firstName, String lastName, String email, String department) {
+}
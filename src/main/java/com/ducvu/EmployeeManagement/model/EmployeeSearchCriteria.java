@@ -0,0 +1,4 @@
+package com.ducvu.EmployeeManagement.model;
+
+public record EmployeeSearchCriteria(String department, String firstName, String lastName) {
+}
@@ -0,0 +1,9 @@
+package com.ducvu.EmployeeManagement.model;
+
+/**
+ * An employee matched by the fuzzy search. {@code score} is the fraction of the query's trigrams found in the
+ * employee's fields.
+ */
+public record EmployeeSearchHit(Long id, String firstName, String lastName, String email, String department,
+                                double score) {
+}
@@ -0,0 +1,6 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.util.List;
+
+public record ImportResult(int created, int rejected, List<ImportRowResult> rows) {
+}
@@ -0,0 +1,10 @@
+package com.ducvu.EmployeeManagement.model;
+
+public record ImportRowResult(int row, String email, Status status, String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+}
@@ -0,0 +1,26 @@
+package com.ducvu.EmployeeManagement.model;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a write accepted by the write-behind queue. {@code employeeId} is set once the write succeeded,
+ * {@code error} once it failed.
+ */
+public record WriteStatus(UUID trackingId, State state, Long employeeId, String error) {
+
+    public static WriteStatus pending(UUID trackingId) {
+        return new WriteStatus(trackingId, State.PENDING, null, null);
+    }
+
+    public static WriteStatus succeeded(UUID trackingId, Long employeeId) {
+        return new WriteStatus(trackingId, State.SUCCEEDED, employeeId, null);
+    }
+
+    public static WriteStatus failed(UUID trackingId, String error) {
+        return new WriteStatus(trackingId, State.FAILED, null, error);
+    }
+
+    public enum State {
+        PENDING, SUCCEEDED, FAILED
+    }
+}
@@ -0,0 +1,72 @@
+package com.ducvu.EmployeeManagement.repository;
+
+import com.ducvu.EmployeeManagement.model.ArchivedEmployee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to deleted employees, which the {@link EmployeeRepository} never sees.
+ */
+@Repository
+public class DeletedEmployeeRepository {
+    private static final String RESTORE_SQL =
+            "UPDATE employee SET deleted_at = NULL, version = version + 1 WHERE id = :id AND deleted_at IS NOT NULL";
+    private static final String FIND_DEPARTMENT_SQL = "SELECT department FROM employee WHERE id = :id";
+    private static final String FIND_DELETED_BEFORE_SQL =
+            "SELECT id, first_name, last_name, email, department, version, deleted_at FROM employee "
+                    + "WHERE deleted_at < :before ORDER BY deleted_at, id LIMIT :limit";
+    private static final String DELETE_DELETED_BEFORE_SQL =
+            "DELETE FROM employee WHERE id IN (:ids) AND deleted_at < :before";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DeletedEmployeeRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int restore(Long id) {
+        return jdbcTemplate.update(RESTORE_SQL, Map.of("id", id));
+    }
+
+    /**
+     * The department of the employee, deleted or not.
+     */
+    public Optional<String> findDepartmentById(Long id) {
+        return jdbcTemplate.queryForList(FIND_DEPARTMENT_SQL, Map.of("id", id), String.class).stream()
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    /**
+     * Up to {@code limit} employees deleted before the given time, oldest deletion first. Served by the index on
+     * deleted_at, which only has to be scanned as far as the limit.
+     */
+    public List<ArchivedEmployee> findDeletedBefore(Instant before, int limit) {
+        return jdbcTemplate.query(FIND_DELETED_BEFORE_SQL, Map.of("before", Timestamp.from(before), "limit", limit),
+                (rs, rowNum) -> new ArchivedEmployee(
+                        rs.getLong("id"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("email"),
+                        rs.getString("department"),
+                        rs.getLong("version"),
+                        rs.getTimestamp("deleted_at").toInstant()));
+    }
+
+    /**
+     * Removes the given employees for good, except those that were restored since they were read.
+     */
+    public int deleteDeletedBefore(Collection<Long> ids, Instant before) {
+        return jdbcTemplate.update(DELETE_DELETED_BEFORE_SQL, Map.of("ids", ids, "before", Timestamp.from(before)));
+    }
+}
@@ -0,0 +1,57 @@
+package com.ducvu.EmployeeManagement.repository;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Inserts employees through plain JDBC batches. Hibernate cannot batch inserts for identity generated
+ * ids, so bulk writes bypass the persistence context entirely.
+ */
+@Repository
+public class EmployeeBatchRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO employee (first_name, last_name, email, department, version) VALUES (?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EmployeeBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the employees in one batch and sets their generated ids and initial version.
+     */
+    public void insertAll(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (Employee employee : employees) {
+                    ps.setString(1, employee.getFirstName());
+                    ps.setString(2, employee.getLastName());
+                    ps.setString(3, employee.getEmail());
+                    ps.setString(4, employee.getDepartment());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Employee employee : employees) {
+                        keys.next();
+                        employee.setId(keys.getLong(1));
+                        employee.setVersion(0L);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.ducvu.EmployeeManagement.repository;
+
+import com.ducvu.EmployeeManagement.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+
+    List<EmployeeChange> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Pageable pageable);
+
+    List<EmployeeChange> findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(
+            Long after, Long upTo, Pageable pageable);
+
+    @Query("select coalesce(max(c.sequence), 0) from EmployeeChange c")
+    long findMaxSequence();
+
+    @Modifying
+    @Query("insert into EmployeeChange (employeeId, type, firstName, lastName, email, department, version, changedAt) "
+            + "select e.id, com.ducvu.EmployeeManagement.model.EmployeeChange$Type.CREATED, "
+            + "e.firstName, e.lastName, e.email, e.department, e.version, :changedAt "
+            + "from Employee e where e.liveEmail in :emails")
+    int insertCreatedByEmails(Collection<String> emails, Instant changedAt);
+
+    @Modifying
+    @Query("insert into EmployeeChange (employeeId, type, firstName, lastName, email, department, version, changedAt) "
+            + "select e.id, com.ducvu.EmployeeManagement.model.EmployeeChange$Type.CREATED, "
+            + "e.firstName, e.lastName, e.email, e.department, e.version, :changedAt "
+            + "from Employee e where e.id in :ids")
+    int insertCreatedByIds(Collection<Long> ids, Instant changedAt);
+
+    @Modifying
+    @Query("insert into EmployeeChange (employeeId, type, firstName, lastName, email, department, version, changedAt) "
+            + "select e.id, com.ducvu.EmployeeManagement.model.EmployeeChange$Type.UPDATED, "
+            + "e.firstName, e.lastName, e.email, e.department, e.version, :changedAt "
+            + "from Employee e where e.id in :ids")
+    int insertUpdatedByIds(Collection<Long> ids, Instant changedAt);
+
+    @Modifying
+    @Query("insert into EmployeeChange (employeeId, type, firstName, lastName, email, department, version, changedAt) "
+            + "select e.id, com.ducvu.EmployeeManagement.model.EmployeeChange$Type.UPDATED, "
+            + "e.firstName, e.lastName, e.email, :department, e.version + 1, :changedAt "
+            + "from Employee e where e.id in :ids")
+    int insertDepartmentChangesByIds(Collection<Long> ids, String department, Instant changedAt);
+
+    @Modifying
+    @Query("insert into EmployeeChange (employeeId, type, firstName, lastName, email, department, version, changedAt) "
+            + "select e.id, com.ducvu.EmployeeManagement.model.EmployeeChange$Type.UPDATED, "
+            + "e.firstName, e.lastName, e.email, :department, e.version + 1, :changedAt "
+            + "from Employee e where e.department = :fromDepartment")
+    int insertDepartmentChangesByDepartment(String fromDepartment, String department, Instant changedAt);
+
+    @Modifying
+    @Query("insert into EmployeeChange (employeeId, type, changedAt) "
+            + "select e.id, com.ducvu.EmployeeManagement.model.EmployeeChange$Type.DELETED, :changedAt "
+            + "from Employee e where e.id in :ids")
+    int insertTombstonesByIds(Collection<Long> ids, Instant changedAt);
+
+    @Modifying
+    @Query("insert into EmployeeChange (employeeId, type, changedAt) "
+            + "select e.id, com.ducvu.EmployeeManagement.model.EmployeeChange$Type.DELETED, :changedAt "
+            + "from Employee e where e.department = :department")
+    int insertTombstonesByDepartment(String department, Instant changedAt);
+
+    /**
+     * Entries older than {@code before} that no consumer needs to rebuild the current state: tombstones, and
+     * entries superseded by a later change of the same employee. The last entry is always kept, so the highest
+     * sequence never goes back.
+     */
+    @Query("select c.sequence from EmployeeChange c where c.changedAt < :before "
+            + "and c.sequence < (select max(m.sequence) from EmployeeChange m) "
+            + "and (c.type = com.ducvu.EmployeeManagement.model.EmployeeChange$Type.DELETED "
+            + "or exists (select 1 from EmployeeChange n where n.employeeId = c.employeeId and n.sequence > c.sequence))")
+    List<Long> findCompactable(Instant before, Pageable pageable);
+
+    @Modifying
+    @Query("delete from EmployeeChange c where c.sequence in :sequences")
+    int deleteBySequences(Collection<Long> sequences);
+}
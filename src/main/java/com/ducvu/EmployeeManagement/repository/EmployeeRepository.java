@@ -1,12 +1,68 @@
 package com.ducvu.EmployeeManagement.repository;
 
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
 import com.ducvu.EmployeeManagement.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Only sees employees that are not deleted (see {@link Employee}). Deleting sets the time of deletion; deleted
+ * employees are restored and purged through {@link DeletedEmployeeRepository}.
+ */
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeSearchRepository {
+    @Query("select e from Employee e where e.liveEmail = :email")
     Optional<Employee> findEmployeeByEmail(String email);
+
+    @Query("select e from Employee e where e.liveEmail in :emails")
+    List<Employee> findByEmailIn(Collection<String> emails);
+
+    @Query("select e.email from Employee e where e.liveEmail in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @Query("select new com.ducvu.EmployeeManagement.model.DepartmentHeadcount(e.department, count(e)) "
+            + "from Employee e where e.department is not null group by e.department")
+    List<DepartmentHeadcount> countByDepartment();
+
+    @Modifying
+    @Query("update Employee e set e.deletedAt = :deletedAt, e.version = e.version + 1 where e.id = :id")
+    int deleteEmployeeById(Long id, Instant deletedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.department = :department, e.version = e.version + 1 where e.id in :ids")
+    int bulkUpdateDepartmentByIds(Collection<Long> ids, String department);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.department = :department, e.version = e.version + 1 "
+            + "where e.department = :fromDepartment")
+    int bulkUpdateDepartmentByDepartment(String fromDepartment, String department);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.deletedAt = :deletedAt, e.version = e.version + 1 where e.id in :ids")
+    int bulkDeleteByIds(Collection<Long> ids, Instant deletedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.deletedAt = :deletedAt, e.version = e.version + 1 "
+            + "where e.department = :department")
+    int bulkDeleteByDepartment(String department, Instant deletedAt);
+
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Employee> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,13 @@
+package com.ducvu.EmployeeManagement.repository;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeFields;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchCriteria;
+
+import java.util.List;
+
+public interface EmployeeSearchRepository {
+    List<Employee> search(EmployeeSearchCriteria criteria, Long after, int limit);
+
+    List<EmployeeFields> searchFields(EmployeeSearchCriteria criteria, List<String> fields, Long after, int limit);
+}
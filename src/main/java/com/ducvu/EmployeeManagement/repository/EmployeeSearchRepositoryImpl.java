@@ -0,0 +1,97 @@
+package com.ducvu.EmployeeManagement.repository;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeFields;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchCriteria;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the search query from the criteria that are actually set, so the database only sees predicates it
+ * can answer from the department and (last_name, first_name) indexes.
+ */
+public class EmployeeSearchRepositoryImpl implements EmployeeSearchRepository {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    public EmployeeSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Employee> search(EmployeeSearchCriteria criteria, Long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+
+        query.select(employee)
+                .where(predicates(cb, employee, criteria, after))
+                .orderBy(cb.asc(employee.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Selects only the given columns straight into {@link EmployeeFields}, so no entity is hydrated and nothing is
+     * added to the persistence context. Fields that were not asked for are selected as null and never read.
+     */
+    @Override
+    public List<EmployeeFields> searchFields(EmployeeSearchCriteria criteria, List<String> fields, Long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EmployeeFields> query = cb.createQuery(EmployeeFields.class);
+        Root<Employee> employee = query.from(Employee.class);
+
+        query.select(cb.construct(EmployeeFields.class,
+                        field(cb, employee, fields, "id", Long.class),
+                        field(cb, employee, fields, "firstName", String.class),
+                        field(cb, employee, fields, "lastName", String.class),
+                        field(cb, employee, fields, "email", String.class),
+                        field(cb, employee, fields, "department", String.class),
+                        field(cb, employee, fields, "version", Long.class)))
+                .where(predicates(cb, employee, criteria, after))
+                .orderBy(cb.asc(employee.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static <T> Selection<T> field(CriteriaBuilder cb, Root<Employee> employee, List<String> fields,
+                                          String name, Class<T> type) {
+        return fields.contains(name) ? employee.get(name) : cb.nullLiteral(type);
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Employee> employee,
+                                          EmployeeSearchCriteria criteria, Long after) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(employee.get("id"), after));
+        if (hasText(criteria.department())) {
+            predicates.add(cb.equal(employee.get("department"), criteria.department()));
+        }
+        if (hasText(criteria.lastName())) {
+            predicates.add(cb.like(employee.get("lastName"), prefixPattern(criteria.lastName()), LIKE_ESCAPE));
+        }
+        if (hasText(criteria.firstName())) {
+            predicates.add(cb.like(employee.get("firstName"), prefixPattern(criteria.firstName()), LIKE_ESCAPE));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String prefixPattern(String prefix) {
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,105 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the number of employees per department in memory. The counters are loaded with one GROUP BY query at
+ * startup, adjusted by every write once its transaction commits, and periodically reconciled with the database
+ * to correct drift from writes that bypass the service or race with a reload. Employees without a department
+ * are not counted.
+ */
+@Slf4j
+@Service
+public class DepartmentHeadcountService {
+
+    private final EmployeeRepository employeeRepository;
+    private final Counter driftCounter;
+    private volatile Map<String, Long> headcounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DepartmentHeadcountService(EmployeeRepository employeeRepository, MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.driftCounter = Counter.builder("employee.headcount.drift")
+                .description("Reconciliations that found the in-memory headcounts out of date")
+                .register(meterRegistry);
+    }
+
+    public List<DepartmentHeadcount> getHeadcounts() {
+        return headcounts.entrySet().stream()
+                .map(entry -> new DepartmentHeadcount(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(DepartmentHeadcount::department))
+                .toList();
+    }
+
+    public void added(String department) {
+        AfterCommit.run(() -> adjust(department, 1));
+    }
+
+    public void removed(String department, long count) {
+        AfterCommit.run(() -> adjust(department, -count));
+    }
+
+    public void moved(String fromDepartment, String toDepartment, long count) {
+        if (Objects.equals(fromDepartment, toDepartment)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            adjust(fromDepartment, -count);
+            adjust(toDepartment, count);
+        });
+    }
+
+    /**
+     * For writes whose effect on individual departments is not known, such as bulk operations by id.
+     */
+    public void reloadAfterCommit() {
+        AfterCommit.run(this::reload);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        headcounts = load();
+    }
+
+    @Scheduled(initialDelayString = "${employee.headcount.reconcile-interval:PT5M}",
+            fixedDelayString = "${employee.headcount.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Map<String, Long> actual = load();
+        if (!actual.equals(headcounts)) {
+            driftCounter.increment();
+            log.warn("Department headcounts drifted from the database, expected {} but had {}", actual, headcounts);
+            headcounts = actual;
+        }
+    }
+
+    private Map<String, Long> load() {
+        return employeeRepository.countByDepartment().stream()
+                .collect(Collectors.toConcurrentMap(DepartmentHeadcount::department, DepartmentHeadcount::headcount));
+    }
+
+    private void adjust(String department, long delta) {
+        if (department == null) {
+            return;
+        }
+        headcounts.compute(department, (key, headcount) -> {
+            long updated = (headcount == null ? 0 : headcount) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+}
@@ -0,0 +1,248 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeChange;
+import com.ducvu.EmployeeManagement.model.EmployeeChangePage;
+import com.ducvu.EmployeeManagement.repository.EmployeeChangeRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of employee changes for consumers that keep a copy of the employee table. Every change is
+ * recorded in the transaction of the write itself, so the log never misses a committed change nor shows a rolled
+ * back one. Consumers poll with the last sequence they have seen.
+ * <p>
+ * Sequences are assigned on insert but transactions commit in any order, so a consumer could see sequence 11 before
+ * 10 commits and move its cursor past 10 for good. Each transaction that records changes is therefore registered
+ * before its first insert, with the highest sequence committed at that moment, and polls only see entries up to the
+ * lowest such sequence of the transactions still running. The registry is held in memory, like the search index
+ * and the headcounts, so it assumes a single instance writes the log.
+ * <p>
+ * Entries older than the retention are compacted: only the latest entry of each employee still present is kept,
+ * and tombstones are dropped. A consumer that falls further behind than the retention must resynchronize from
+ * the employee list.
+ */
+@Slf4j
+@Service
+@Timed(value = "employee.service", histogram = true)
+public class EmployeeChangeService {
+
+    private static final int COMPACTION_BATCH_SIZE = 1000;
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration retention;
+    /**
+     * Highest committed sequence when each running transaction started recording, with the number of transactions
+     * that saw it. Their own entries all come after it.
+     */
+    private final NavigableMap<Long, Integer> inFlight = new TreeMap<>();
+    /**
+     * Marks a transaction as registered in {@link #inFlight}. Not the map itself, whose hash changes with its content.
+     */
+    private final Object recordingKey = new Object();
+
+    @Autowired
+    public EmployeeChangeService(EmployeeChangeRepository employeeChangeRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${employee.changes.retention:P7D}") Duration retention) {
+        this(employeeChangeRepository, transactionManager, Clock.systemUTC(), retention);
+    }
+
+    EmployeeChangeService(EmployeeChangeRepository employeeChangeRepository,
+                          PlatformTransactionManager transactionManager,
+                          Clock clock,
+                          Duration retention) {
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.retention = retention;
+    }
+
+    /**
+     * Returns the entries after {@code after} that are safe to hand out: every entry up to the last one returned
+     * is committed, so no entry can show up later behind the consumer's cursor.
+     */
+    public EmployeeChangePage getChanges(Long after, int limit) {
+        long from = after == null ? 0L : after;
+        long visible = visibleSequence();
+        if (visible <= from) {
+            return new EmployeeChangePage(List.of(), from);
+        }
+        List<EmployeeChange> changes = employeeChangeRepository.findBySequenceGreaterThanAndSequenceLessThanEqualOrderBySequenceAsc(
+                from, visible, PageRequest.of(0, Math.min(Math.max(limit, 1), EmployeeService.MAX_PAGE_SIZE)));
+        return new EmployeeChangePage(changes, changes.isEmpty() ? from : changes.get(changes.size() - 1).getSequence());
+    }
+
+    /**
+     * The last sequence of the log, provided every entry up to it is committed. Null while a transaction that
+     * started recording before it is still running: that transaction can still add entries below the head, so the
+     * head does not identify the state of the employees yet.
+     */
+    public Long getHead() {
+        long committed = employeeChangeRepository.findMaxSequence();
+        synchronized (inFlight) {
+            return inFlight.isEmpty() || inFlight.firstKey() >= committed ? committed : null;
+        }
+    }
+
+    /**
+     * The committed maximum is read before the running transactions are looked at. A transaction that registers in
+     * between gets sequences above that maximum, and one that was running before holds the limit below its own
+     * entries, so every entry up to the result is committed.
+     */
+    private long visibleSequence() {
+        long committed = employeeChangeRepository.findMaxSequence();
+        synchronized (inFlight) {
+            return inFlight.isEmpty() ? committed : Math.min(committed, inFlight.firstKey());
+        }
+    }
+
+    /**
+     * Registers the current transaction before it records its first change, and unregisters it once it completes,
+     * whether it commits or rolls back.
+     */
+    private void recording() {
+        if (TransactionSynchronizationManager.hasResource(recordingKey)) {
+            return;
+        }
+        long committed = employeeChangeRepository.findMaxSequence();
+        synchronized (inFlight) {
+            inFlight.merge(committed, 1, Integer::sum);
+        }
+        TransactionSynchronizationManager.bindResource(recordingKey, committed);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(recordingKey);
+                synchronized (inFlight) {
+                    inFlight.computeIfPresent(committed, (sequence, count) -> count == 1 ? null : count - 1);
+                }
+            }
+        });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Employee employee) {
+        recording();
+        employeeChangeRepository.save(new EmployeeChange(EmployeeChange.Type.CREATED, employee, clock.instant()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void createdByEmails(Collection<String> emails) {
+        if (!emails.isEmpty()) {
+            recording();
+            employeeChangeRepository.insertCreatedByEmails(emails, clock.instant());
+        }
+    }
+
+    /**
+     * Must be called after the employees are inserted, as it records them as stored.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void createdByIds(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            recording();
+            employeeChangeRepository.insertCreatedByIds(ids, clock.instant());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updated(Employee employee) {
+        recording();
+        employeeChangeRepository.save(new EmployeeChange(EmployeeChange.Type.UPDATED, employee, clock.instant()));
+    }
+
+    /**
+     * Must be called after the updates are flushed, as it records the employees as stored.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updatedByIds(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            recording();
+            employeeChangeRepository.insertUpdatedByIds(ids, clock.instant());
+        }
+    }
+
+    /**
+     * Must be called before the department is changed, as it records each employee with the new department.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void departmentChanged(Collection<Long> ids, String department) {
+        recording();
+        employeeChangeRepository.insertDepartmentChangesByIds(ids, department, clock.instant());
+    }
+
+    /**
+     * Must be called before the department is changed, as it records each employee with the new department.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void departmentChanged(String fromDepartment, String department) {
+        recording();
+        employeeChangeRepository.insertDepartmentChangesByDepartment(fromDepartment, department, clock.instant());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Long id) {
+        recording();
+        employeeChangeRepository.save(new EmployeeChange(id, clock.instant()));
+    }
+
+    /**
+     * Must be called before the employees are deleted, as it selects them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(Collection<Long> ids) {
+        recording();
+        employeeChangeRepository.insertTombstonesByIds(ids, clock.instant());
+    }
+
+    /**
+     * Must be called before the employees are deleted, as it selects them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deletedByDepartment(String department) {
+        recording();
+        employeeChangeRepository.insertTombstonesByDepartment(department, clock.instant());
+    }
+
+    @Scheduled(initialDelayString = "${employee.changes.compaction-interval:PT1H}",
+            fixedDelayString = "${employee.changes.compaction-interval:PT1H}")
+    public int compact() {
+        Instant before = clock.instant().minus(retention);
+        int compacted = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Long> sequences = employeeChangeRepository.findCompactable(
+                        before, PageRequest.of(0, COMPACTION_BATCH_SIZE));
+                return sequences.isEmpty() ? 0 : employeeChangeRepository.deleteBySequences(sequences);
+            });
+            compacted += deleted;
+        } while (deleted == COMPACTION_BATCH_SIZE);
+        if (compacted > 0) {
+            log.info("Compacted {} employee changes older than {}", compacted, before);
+        }
+        return compacted;
+    }
+}
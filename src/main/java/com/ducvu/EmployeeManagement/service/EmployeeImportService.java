@@ -0,0 +1,199 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.exception.EmployeeAlreadyExistException;
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.ImportResult;
+import com.ducvu.EmployeeManagement.model.ImportRowResult;
+import com.ducvu.EmployeeManagement.repository.EmployeeBatchRepository;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports employees in chunks. Each chunk costs one query to find emails that are already taken and
+ * one JDBC batch insert, and is committed in its own transaction.
+ * <p>
+ * Rows are checked against the columns before they are inserted, so a bad row is reported instead of failing its
+ * chunk. A chunk that still fails is rolled back and retried one row at a time, and only the rows that fail on
+ * their own are reported as rejected.
+ */
+@Service
+@Timed(value = "employee.service", histogram = true)
+public class EmployeeImportService {
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeBatchRepository employeeBatchRepository;
+    private final EmployeeChangeService employeeChangeService;
+    private final DepartmentHeadcountService departmentHeadcountService;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final int batchSize;
+
+    @Autowired
+    public EmployeeImportService(EmployeeRepository employeeRepository,
+                                 EmployeeBatchRepository employeeBatchRepository,
+                                 EmployeeChangeService employeeChangeService,
+                                 DepartmentHeadcountService departmentHeadcountService,
+                                 EmployeeSearchIndex employeeSearchIndex,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${employee.import.batch-size:500}") int batchSize) {
+        this.employeeRepository = employeeRepository;
+        this.employeeBatchRepository = employeeBatchRepository;
+        this.employeeChangeService = employeeChangeService;
+        this.departmentHeadcountService = departmentHeadcountService;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonReader = objectMapper.readerFor(Employee.class);
+        this.csvReader = new CsvMapper()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(Employee.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.batchSize = batchSize;
+    }
+
+    public ImportResult importJson(InputStream json) throws IOException {
+        return importEmployees(jsonReader.readValues(json));
+    }
+
+    public ImportResult importCsv(InputStream csv) throws IOException {
+        return importEmployees(csvReader.readValues(csv));
+    }
+
+    private ImportResult importEmployees(MappingIterator<Employee> employees) {
+        List<ImportRowResult> results = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        int row = 0;
+
+        try (employees) {
+            while (employees.hasNextValue()) {
+                row++;
+                Employee employee = employees.nextValue();
+                String email = employee.getEmail();
+                String invalid = validate(employee);
+                if (invalid != null) {
+                    results.add(new ImportRowResult(row, email, ImportRowResult.Status.INVALID, invalid));
+                } else if (!seenEmails.add(email)) {
+                    results.add(new ImportRowResult(row, email, ImportRowResult.Status.DUPLICATE, email + " already exist!"));
+                } else {
+                    chunk.add(new ImportRow(row, employee));
+                    if (chunk.size() == batchSize) {
+                        results.addAll(importChunk(chunk));
+                        chunk.clear();
+                    }
+                }
+            }
+        } catch (JacksonException ex) {
+            results.add(new ImportRowResult(row, null, ImportRowResult.Status.INVALID, ex.getOriginalMessage()));
+        } catch (IOException ex) {
+            results.add(new ImportRowResult(row, null, ImportRowResult.Status.INVALID, ex.getMessage()));
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk));
+        }
+
+        results.sort(Comparator.comparingInt(ImportRowResult::row));
+        int created = (int) results.stream()
+                .filter(result -> result.status() == ImportRowResult.Status.CREATED)
+                .count();
+        return new ImportResult(created, results.size() - created, results);
+    }
+
+    private static String validate(Employee employee) {
+        if (employee.getEmail() == null || employee.getEmail().isBlank()) {
+            return "email is required";
+        }
+        if (tooLong(employee.getFirstName(), Employee.NAME_LENGTH)) {
+            return "firstName is longer than " + Employee.NAME_LENGTH + " characters";
+        }
+        if (tooLong(employee.getLastName(), Employee.NAME_LENGTH)) {
+            return "lastName is longer than " + Employee.NAME_LENGTH + " characters";
+        }
+        if (tooLong(employee.getEmail(), Employee.EMAIL_LENGTH)) {
+            return "email is longer than " + Employee.EMAIL_LENGTH + " characters";
+        }
+        if (tooLong(employee.getDepartment(), Employee.DEPARTMENT_LENGTH)) {
+            return "department is longer than " + Employee.DEPARTMENT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value, int length) {
+        return value != null && value.length() > length;
+    }
+
+    private List<ImportRowResult> importChunk(List<ImportRow> chunk) {
+        try {
+            return insertChunk(chunk);
+        } catch (DataIntegrityViolationException ex) {
+            // an email was taken by another writer after the check, or a row breaks a constraint the validation
+            // does not know about; the chunk was rolled back, so insert its rows one by one to find out which
+            List<ImportRowResult> results = new ArrayList<>(chunk.size());
+            chunk.forEach(importRow -> results.add(importRow(importRow)));
+            return results;
+        }
+    }
+
+    private ImportRowResult importRow(ImportRow importRow) {
+        String email = importRow.employee().getEmail();
+        try {
+            return insertChunk(List.of(importRow)).get(0);
+        } catch (DataIntegrityViolationException ex) {
+            if (EmployeeAlreadyExistException.isDuplicateEmail(ex)) {
+                return new ImportRowResult(importRow.row(), email, ImportRowResult.Status.DUPLICATE, email + " already exist!");
+            }
+            return new ImportRowResult(importRow.row(), email, ImportRowResult.Status.INVALID,
+                    "row violates a database constraint");
+        }
+    }
+
+    private List<ImportRowResult> insertChunk(List<ImportRow> chunk) {
+        List<ImportRowResult> results = new ArrayList<>(chunk.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> existingEmails = new HashSet<>(employeeRepository.findExistingEmails(
+                    chunk.stream().map(importRow -> importRow.employee().getEmail()).toList()));
+            List<Employee> toInsert = new ArrayList<>(chunk.size());
+            for (ImportRow importRow : chunk) {
+                String email = importRow.employee().getEmail();
+                if (existingEmails.contains(email)) {
+                    results.add(new ImportRowResult(importRow.row(), email, ImportRowResult.Status.DUPLICATE, email + " already exist!"));
+                } else {
+                    toInsert.add(importRow.employee());
+                    results.add(new ImportRowResult(importRow.row(), email, ImportRowResult.Status.CREATED, null));
+                }
+            }
+            employeeBatchRepository.insertAll(toInsert);
+            List<String> emails = toInsert.stream().map(Employee::getEmail).toList();
+            employeeChangeService.createdByEmails(emails);
+            employeeSearchIndex.indexByEmailsAfterCommit(emails);
+            toInsert.forEach(employee -> departmentHeadcountService.added(employee.getDepartment()));
+        });
+        return results;
+    }
+
+    private record ImportRow(int row, Employee employee) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.ArchivedEmployee;
+import com.ducvu.EmployeeManagement.repository.DeletedEmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Removes employees that were deleted longer than the retention ago, until when they can still be restored.
+ * <p>
+ * Employees are purged in batches. Each batch is first appended to a gzipped NDJSON archive file, one per run, and
+ * synced to disk; only then is it deleted, with one statement that locks no more than the batch. An employee can
+ * therefore be archived and not deleted, when it is restored meanwhile or the delete fails, and is archived again
+ * by a later run if it is still due. It is never deleted without being archived.
+ */
+@Slf4j
+@Service
+@Timed(value = "employee.service", histogram = true)
+public class EmployeePurgeService {
+
+    private static final DateTimeFormatter ARCHIVE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final DeletedEmployeeRepository deletedEmployeeRepository;
+    private final ObjectWriter archiveWriter;
+    private final Clock clock;
+    private final Duration retention;
+    private final int batchSize;
+    private final Path archiveDirectory;
+
+    @Autowired
+    public EmployeePurgeService(DeletedEmployeeRepository deletedEmployeeRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${employee.deleted.retention:P30D}") Duration retention,
+                                @Value("${employee.deleted.purge-batch-size:500}") int batchSize,
+                                @Value("${employee.deleted.archive-directory:archive}") Path archiveDirectory) {
+        this(deletedEmployeeRepository, objectMapper, Clock.systemUTC(), retention, batchSize, archiveDirectory);
+    }
+
+    EmployeePurgeService(DeletedEmployeeRepository deletedEmployeeRepository,
+                         ObjectMapper objectMapper,
+                         Clock clock,
+                         Duration retention,
+                         int batchSize,
+                         Path archiveDirectory) {
+        this.deletedEmployeeRepository = deletedEmployeeRepository;
+        this.archiveWriter = objectMapper.writerFor(ArchivedEmployee.class).withRootValueSeparator("\n");
+        this.clock = clock;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    @Scheduled(initialDelayString = "${employee.deleted.purge-interval:PT1H}",
+            fixedDelayString = "${employee.deleted.purge-interval:PT1H}")
+    public int purge() {
+        Instant now = clock.instant();
+        Instant before = now.minus(retention);
+        List<ArchivedEmployee> batch = deletedEmployeeRepository.findDeletedBefore(before, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Path archive = archiveDirectory.resolve("employees-" + ARCHIVE_TIMESTAMP.format(now) + ".ndjson.gz");
+        int purged = 0;
+        try {
+            Files.createDirectories(archiveDirectory);
+            try (FileOutputStream file = new FileOutputStream(archive.toFile(), true);
+                 SequenceWriter writer = archiveWriter.writeValues(new GZIPOutputStream(file, true))) {
+                while (!batch.isEmpty()) {
+                    writer.writeAll(batch);
+                    writer.flush();
+                    file.getFD().sync();
+                    purged += deletedEmployeeRepository.deleteDeletedBefore(
+                            batch.stream().map(ArchivedEmployee::id).toList(), before);
+                    batch = batch.size() < batchSize ? List.of() : deletedEmployeeRepository.findDeletedBefore(before, batchSize);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not archive deleted employees to " + archive, ex);
+        }
+        log.info("Purged {} employees deleted before {}, archived to {}", purged, before, archive);
+        return purged;
+    }
+}
@@ -0,0 +1,517 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchHit;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over first name, last name, email and department for typo tolerant search. Every word
+ * of a field is padded with a space on both sides and split into trigrams; an employee matches when it shares at
+ * least {@link #MIN_SCORE} of the query's trigrams, and matches are ranked by that share.
+ * <p>
+ * Employees are numbered densely inside the index so posting lists are sorted {@code int} arrays and a query
+ * counts shared trigrams in a plain array. Only the shortest posting lists are scanned for candidates; the long
+ * ones, for trigrams almost every employee has, are only probed for those candidates.
+ * <p>
+ * Documents keep no trigrams of their own: the only trigram strings held are the keys of the posting map, and a
+ * document's trigrams are computed again from its fields when it is removed.
+ * <p>
+ * The index is built when the application is ready and updated by the employee write paths once their
+ * transaction commits. Updates made while it is rebuilt are replayed on the new index before it replaces the old
+ * one. After-commit updates of one employee can run out of commit order, so a document older than the indexed
+ * one, by entity version, is ignored. Its size and estimated memory use are published as
+ * {@code employee.search.index.*} gauges.
+ */
+@Slf4j
+@Service
+@Timed(value = "employee.service", histogram = true)
+public class EmployeeSearchIndex {
+
+    static final double MIN_SCORE = 0.3;
+
+    private static final int GRAM = 3;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_QUERY_LENGTH = 200;
+    // rough per-object costs on a 64-bit JVM with compressed oops and compact strings. A document is the record
+    // (40), its boxed id and version (2 x 16), the id to ordinal map entry with its boxed ordinal (56) and four
+    // strings without their characters (4 x 40, plus alignment); a posting list is the list (24), its array header
+    // (16), the map entry (40) and the trigram key with its array (48)
+    private static final long DOCUMENT_BYTES = 306;
+    private static final long POSTINGS_BYTES = 128;
+
+    private final EmployeeRepository employeeRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    /**
+     * Updates applied while the index is rebuilt, to be replayed on the new index. Null when no rebuild runs.
+     */
+    private List<Consumer<Index>> pendingUpdates;
+
+    @Autowired
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("employee.search.index.documents", this, EmployeeSearchIndex::size)
+                .description("Employees in the fuzzy search index")
+                .register(meterRegistry);
+        Gauge.builder("employee.search.index.trigrams", this, search -> search.read(() -> search.index.postings.size()))
+                .description("Distinct trigrams in the fuzzy search index")
+                .register(meterRegistry);
+        Gauge.builder("employee.search.index.memory", this, EmployeeSearchIndex::estimatedBytes)
+                .description("Estimated heap used by the fuzzy search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public List<EmployeeSearchHit> search(String query, int limit) {
+        Set<String> queryGrams = grams(query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+        int minShared = (int) Math.ceil(queryGrams.size() * MIN_SCORE);
+        int size = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        return read(() -> index.search(queryGrams, minShared, size));
+    }
+
+    /**
+     * Replaces the whole index with the employees currently in the database. Reads from the primary even when a
+     * replica is configured, since rows a lagging replica still has would never be removed from the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Index rebuilt = new Index();
+        // start recording before reading, so a write the read misses is replayed; replaying one it saw is harmless
+        write(() -> pendingUpdates = new ArrayList<>());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+                    employees.forEach(employee -> {
+                        rebuilt.put(Document.of(employee));
+                        entityManager.detach(employee);
+                    });
+                }
+            });
+            write(() -> {
+                pendingUpdates.forEach(update -> update.accept(rebuilt));
+                index = rebuilt;
+            });
+        } finally {
+            write(() -> pendingUpdates = null);
+        }
+        log.info("Indexed {} employees, {} trigrams, about {} MB", rebuilt.ordinals.size(), rebuilt.postings.size(),
+                rebuilt.estimatedBytes() / (1024 * 1024));
+    }
+
+    public void indexAfterCommit(Employee employee) {
+        Document document = Document.of(employee);
+        AfterCommit.run(() -> update(index -> index.put(document)));
+    }
+
+    public void removeAfterCommit(Long id) {
+        AfterCommit.run(() -> update(index -> index.remove(id)));
+    }
+
+    public void removeAfterCommit(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        AfterCommit.run(() -> update(index -> removed.forEach(index::remove)));
+    }
+
+    public void removeDepartmentAfterCommit(String department) {
+        AfterCommit.run(() -> update(index -> index.inDepartment(department).forEach(index::remove)));
+    }
+
+    public void moveAfterCommit(Collection<Long> ids, String department) {
+        List<Long> moved = List.copyOf(ids);
+        AfterCommit.run(() -> update(index -> moved.forEach(id -> index.move(id, department))));
+    }
+
+    public void moveDepartmentAfterCommit(String fromDepartment, String department) {
+        AfterCommit.run(() -> update(index -> index.inDepartment(fromDepartment).forEach(id -> index.move(id, department))));
+    }
+
+    /**
+     * For employees written without going through the persistence context, such as imports. Reads them back by
+     * email once the transaction has committed.
+     */
+    public void indexByEmailsAfterCommit(Collection<String> emails) {
+        List<String> indexed = List.copyOf(emails);
+        AfterCommit.run(() -> {
+            List<Employee> employees = employeeRepository.findByEmailIn(indexed);
+            List<Document> documents = employees.stream().map(Document::of).toList();
+            update(index -> documents.forEach(index::put));
+        });
+    }
+
+    public int size() {
+        return read(() -> index.ordinals.size());
+    }
+
+    public long estimatedBytes() {
+        return read(() -> index.estimatedBytes());
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Consumer<Index> update) {
+        write(() -> {
+            update.accept(index);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        });
+    }
+
+    private void write(Runnable writer) {
+        lock.writeLock().lock();
+        try {
+            writer.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static Set<String> grams(String... texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String padded = " " + word + " ";
+                for (int i = 0; i + GRAM <= padded.length(); i++) {
+                    grams.add(padded.substring(i, i + GRAM));
+                }
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * The index state. Not thread safe; guarded by the enclosing read/write lock.
+     */
+    private static final class Index {
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private Document[] documents = new Document[1024];
+        private int[] freeOrdinals = new int[16];
+        private int freeCount;
+        private int nextOrdinal;
+        private long documentChars;
+
+        List<EmployeeSearchHit> search(Set<String> queryGrams, int minShared, int limit) {
+            Postings[] lists = queryGrams.stream()
+                    .map(postings::get)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingInt(Postings::size))
+                    .toArray(Postings[]::new);
+            // an employee sharing minShared trigrams appears in at least one of the shortest n - minShared + 1 lists
+            int scanned = Math.min(lists.length, queryGrams.size() - minShared + 1);
+            short[] shared = new short[nextOrdinal];
+            long candidates = 0;
+            for (int i = 0; i < scanned; i++) {
+                int[] ordinals = lists[i].ordinals;
+                for (int j = 0, size = lists[i].size; j < size; j++) {
+                    if (shared[ordinals[j]]++ == 0) {
+                        candidates++;
+                    }
+                }
+            }
+            for (int i = scanned; i < lists.length; i++) {
+                Postings list = lists[i];
+                if (list.size < candidates * 16) {
+                    for (int j = 0; j < list.size; j++) {
+                        if (shared[list.ordinals[j]] > 0) {
+                            shared[list.ordinals[j]]++;
+                        }
+                    }
+                } else {
+                    for (int ordinal = 0; ordinal < shared.length; ordinal++) {
+                        if (shared[ordinal] > 0 && list.contains(ordinal)) {
+                            shared[ordinal]++;
+                        }
+                    }
+                }
+            }
+
+            // ranked by most shared trigrams, then shortest text, packed into one long so ranking allocates nothing
+            TopK top = new TopK(limit);
+            for (int ordinal = 0; ordinal < shared.length; ordinal++) {
+                long sharedKey = (long) (0xFFFF - shared[ordinal]) << 48;
+                if (shared[ordinal] >= minShared && !top.rejects(sharedKey)) {
+                    top.offer(sharedKey | (long) Math.min(documents[ordinal].gramCount(), 0xFFFF) << 32 | ordinal);
+                }
+            }
+            List<EmployeeSearchHit> hits = new ArrayList<>(top.size());
+            top.forEach(key -> {
+                int ordinal = (int) key;
+                Document document = documents[ordinal];
+                hits.add(new EmployeeSearchHit(document.id(), document.firstName(), document.lastName(),
+                        document.email(), document.department(), (double) shared[ordinal] / queryGrams.size()));
+            });
+            return hits;
+        }
+
+        void put(Document document) {
+            Integer indexed = ordinals.get(document.id());
+            if (indexed != null && documents[indexed].isNewerThan(document)) {
+                return;
+            }
+            remove(document.id());
+            int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+            if (ordinal == documents.length) {
+                documents = Arrays.copyOf(documents, documents.length * 2);
+            }
+            documents[ordinal] = document;
+            ordinals.put(document.id(), ordinal);
+            documentChars += document.chars();
+            for (String gram : document.grams()) {
+                postings.computeIfAbsent(gram, key -> new Postings()).add(ordinal);
+            }
+        }
+
+        void remove(Long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            Document document = documents[ordinal];
+            documents[ordinal] = null;
+            documentChars -= document.chars();
+            for (String gram : document.grams()) {
+                Postings list = postings.get(gram);
+                if (list != null && list.remove(ordinal) && list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+            if (freeCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+            }
+            freeOrdinals[freeCount++] = ordinal;
+        }
+
+        void move(Long id, String department) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                put(documents[ordinal].moved(department));
+            }
+        }
+
+        List<Long> inDepartment(String department) {
+            Postings shortest = null;
+            for (String gram : grams(department)) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return List.of();
+                }
+                if (shortest == null || list.size() < shortest.size()) {
+                    shortest = list;
+                }
+            }
+            List<Long> ids = new ArrayList<>();
+            if (shortest != null) {
+                shortest.forEach(ordinal -> {
+                    if (department.equals(documents[ordinal].department())) {
+                        ids.add(documents[ordinal].id());
+                    }
+                });
+            }
+            return ids;
+        }
+
+        long estimatedBytes() {
+            long bytes = ordinals.size() * DOCUMENT_BYTES + documentChars + 4L * documents.length;
+            for (Postings list : postings.values()) {
+                bytes += POSTINGS_BYTES + 4L * list.capacity();
+            }
+            return bytes;
+        }
+    }
+
+    private record Document(Long id, String firstName, String lastName, String email, String department,
+                            Long version, int gramCount) {
+
+        static Document of(Employee employee) {
+            return of(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                    employee.getDepartment(), employee.getVersion());
+        }
+
+        static Document of(Long id, String firstName, String lastName, String email, String department,
+                           Long version) {
+            return new Document(id, firstName, lastName, email, department, version,
+                    EmployeeSearchIndex.grams(firstName, lastName, email, department).size());
+        }
+
+        /**
+         * The document after a bulk department update, which also increments the version.
+         */
+        Document moved(String department) {
+            return of(id, firstName, lastName, email, department, version == null ? null : version + 1);
+        }
+
+        /**
+         * Whether this document comes from a later write than the other. A document without a version is never
+         * newer or older than another.
+         */
+        boolean isNewerThan(Document other) {
+            return version != null && other.version != null && version > other.version;
+        }
+
+        Set<String> grams() {
+            return EmployeeSearchIndex.grams(firstName, lastName, email, department);
+        }
+
+        /**
+         * One byte per character, as names and emails are nearly always Latin-1.
+         */
+        long chars() {
+            return length(firstName) + length(lastName) + length(email) + length(department);
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+
+    /**
+     * Sorted ordinals of the employees containing one trigram.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            int index = size > 0 && ordinals[size - 1] < ordinal
+                    ? -(size + 1)
+                    : Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -(index + 1);
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+            ordinals[insertAt] = ordinal;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(ordinals[i]);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return ordinals.length;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /**
+     * The k smallest keys seen, kept sorted. Most keys are rejected by a single comparison with the largest.
+     */
+    private static final class TopK {
+        private final long[] keys;
+        private int size;
+
+        TopK(int k) {
+            this.keys = new long[k];
+        }
+
+        /**
+         * Whether every key at least as large as the given one would be rejected.
+         */
+        boolean rejects(long key) {
+            return size == keys.length && key >= keys[size - 1];
+        }
+
+        void offer(long key) {
+            if (rejects(key)) {
+                return;
+            }
+            int insertAt = Arrays.binarySearch(keys, 0, size, key);
+            insertAt = insertAt < 0 ? -(insertAt + 1) : insertAt;
+            int moved = Math.min(size, keys.length - 1) - insertAt;
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, moved);
+            keys[insertAt] = key;
+            size = Math.min(size + 1, keys.length);
+        }
+
+        void forEach(LongConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(keys[i]);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
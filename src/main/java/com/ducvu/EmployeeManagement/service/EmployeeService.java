@@ -1,62 +1,445 @@
 package com.ducvu.EmployeeManagement.service;
 
+import com.ducvu.EmployeeManagement.config.CacheConfig;
 import com.ducvu.EmployeeManagement.exception.EmployeeAlreadyExistException;
 import com.ducvu.EmployeeManagement.exception.EmployeeNotFoundException;
+import com.ducvu.EmployeeManagement.exception.InvalidRequestException;
+import com.ducvu.EmployeeManagement.exception.PreconditionFailedException;
+import com.ducvu.EmployeeManagement.model.BulkDelete;
+import com.ducvu.EmployeeManagement.model.BulkDepartmentUpdate;
+import com.ducvu.EmployeeManagement.model.BulkResult;
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
 import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeChangePage;
+import com.ducvu.EmployeeManagement.model.EmployeeFields;
+import com.ducvu.EmployeeManagement.model.EmployeeFieldsPage;
+import com.ducvu.EmployeeManagement.model.EmployeePage;
+import com.ducvu.EmployeeManagement.model.EmployeePatch;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchCriteria;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchHit;
+import com.ducvu.EmployeeManagement.repository.DeletedEmployeeRepository;
+import com.ducvu.EmployeeManagement.repository.EmployeeBatchRepository;
 import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "employee.service", histogram = true)
 public class EmployeeService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int BULK_CHUNK_SIZE = 1000;
+    public static final List<String> SELECTABLE_FIELDS = List.of("id", "firstName", "lastName", "email", "department", "version");
+
+    private static final EmployeeSearchCriteria ALL = new EmployeeSearchCriteria(null, null, null);
+
     private final EmployeeRepository employeeRepository;
+    private final DeletedEmployeeRepository deletedEmployeeRepository;
+    private final EmployeeBatchRepository employeeBatchRepository;
+    private final EntityManager entityManager;
+    private final DepartmentHeadcountService departmentHeadcountService;
+    private final EmployeeChangeService employeeChangeService;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final Clock clock;
 
     @Autowired
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository,
+                           DeletedEmployeeRepository deletedEmployeeRepository,
+                           EmployeeBatchRepository employeeBatchRepository,
+                           EntityManager entityManager,
+                           DepartmentHeadcountService departmentHeadcountService,
+                           EmployeeChangeService employeeChangeService,
+                           EmployeeSearchIndex employeeSearchIndex) {
+        this(employeeRepository, deletedEmployeeRepository, employeeBatchRepository, entityManager,
+                departmentHeadcountService, employeeChangeService, employeeSearchIndex, Clock.systemUTC());
+    }
+
+    EmployeeService(EmployeeRepository employeeRepository,
+                    DeletedEmployeeRepository deletedEmployeeRepository,
+                    EmployeeBatchRepository employeeBatchRepository,
+                    EntityManager entityManager,
+                    DepartmentHeadcountService departmentHeadcountService,
+                    EmployeeChangeService employeeChangeService,
+                    EmployeeSearchIndex employeeSearchIndex,
+                    Clock clock) {
         this.employeeRepository = employeeRepository;
+        this.deletedEmployeeRepository = deletedEmployeeRepository;
+        this.employeeBatchRepository = employeeBatchRepository;
+        this.entityManager = entityManager;
+        this.departmentHeadcountService = departmentHeadcountService;
+        this.employeeChangeService = employeeChangeService;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.clock = clock;
     }
 
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
+    /**
+     * Returns up to {@code limit} employees with an id greater than {@code after}, ordered by id.
+     * The next cursor is the id of the last employee in the page, or null when there are no more.
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployees(Long after, int limit) {
+        int pageSize = pageSize(limit);
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, PageRequest.of(0, pageSize + 1));
+        return toPage(employees, pageSize);
+    }
+
+    /**
+     * Entity tag for the employee collection: the head of the change log, which every write moves forward, read
+     * with one index lookup. Null while an earlier write is still running, since the collection can still change
+     * without the head moving. It is weak because the same page can be sent in several encodings, compressed or not.
+     */
+    @Transactional(readOnly = true)
+    public String getEmployeesETag() {
+        Long head = employeeChangeService.getHead();
+        return head == null ? null : "W/\"" + head + "\"";
+    }
+
+    /**
+     * Same paging contract as {@link #getEmployees(Long, int)}, restricted to employees matching every
+     * criterion that is set. Names match by prefix, department by equality.
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage searchEmployees(EmployeeSearchCriteria criteria, Long after, int limit) {
+        int pageSize = pageSize(limit);
+        List<Employee> employees = employeeRepository.search(criteria, after == null ? 0L : after, pageSize + 1);
+        return toPage(employees, pageSize);
+    }
+
+    /**
+     * Same paging contract as {@link #getEmployees(Long, int)}, but each employee only carries the requested
+     * fields. The id is always included because it is the cursor.
+     */
+    @Transactional(readOnly = true)
+    public EmployeeFieldsPage getEmployees(Long after, int limit, Collection<String> fields) {
+        return searchEmployees(ALL, after, limit, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public EmployeeFieldsPage searchEmployees(EmployeeSearchCriteria criteria, Long after, int limit, Collection<String> fields) {
+        int pageSize = pageSize(limit);
+        List<EmployeeFields> employees = employeeRepository.searchFields(
+                criteria, selectedFields(fields), after == null ? 0L : after, pageSize + 1);
+        if (employees.size() <= pageSize) {
+            return new EmployeeFieldsPage(employees, null);
+        }
+        List<EmployeeFields> page = employees.subList(0, pageSize);
+        return new EmployeeFieldsPage(page, page.get(pageSize - 1).id());
+    }
+
+    /**
+     * Typo tolerant search over names, email and department, served from the in-memory trigram index.
+     */
+    public List<EmployeeSearchHit> fuzzySearch(String query, int limit) {
+        return employeeSearchIndex.search(query, limit);
+    }
+
+    public EmployeeChangePage getChanges(Long after, int limit) {
+        return employeeChangeService.getChanges(after, limit);
+    }
+
+    public List<DepartmentHeadcount> getDepartmentHeadcounts() {
+        return departmentHeadcountService.getHeadcounts();
+    }
+
+    /**
+     * Hands every employee to the consumer in id order. Entities are detached once consumed so
+     * the persistence context does not grow with the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    /**
+     * Not read-only, so it is read from the primary rather than the replica: the result is cached for every reader
+     * until it expires, and a lagging replica would put a stale or deleted employee in the cache.
+     */
+    @Transactional
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
     public Employee getEmployeeById(Long id) {
         return employeeRepository.findById(id)
                 .orElseThrow(() -> new EmployeeNotFoundException("No employee found with id: " + id));
     }
 
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = "#result.id")
     public Employee addEmployee(Employee e) {
-        if (emailAlreadyExist(e.getEmail())) {
-            throw new EmployeeAlreadyExistException(e.getEmail() + " already exist!");
-        }
-
-        return employeeRepository.save(e);
+        Employee employee = saveUniqueEmail(e);
+        employeeChangeService.created(employee);
+        employeeSearchIndex.indexAfterCommit(employee);
+        departmentHeadcountService.added(employee.getDepartment());
+        return employee;
     }
 
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
     public Employee updateEmployee(Employee e, Long id) {
-        if (emailAlreadyExist(e.getEmail())) {
-            throw new EmployeeAlreadyExistException(e.getEmail() + " already exist!");
-        }
         return employeeRepository.findById(id).map(employee -> {
-            employee.setFirstName(e.getFirstName());
-            employee.setLastName(e.getLastName());
-            employee.setEmail(e.getEmail());
-            employee.setDepartment(e.getDepartment());
-            return employeeRepository.save(employee);
+            String fromDepartment = employee.getDepartment();
+            replaceFields(employee, e);
+            Employee updated = saveUniqueEmail(employee);
+            employeeChangeService.updated(updated);
+            employeeSearchIndex.indexAfterCommit(updated);
+            departmentHeadcountService.moved(fromDepartment, updated.getDepartment(), 1);
+            return updated;
         }).orElseThrow(() -> new EmployeeNotFoundException("No employee found!"));
     }
 
+    /**
+     * Adds the employees with one batched INSERT, in the caller's transaction. Emails are not checked: a duplicate
+     * fails the whole transaction, so callers that need to tell which employee it was retry one by one with
+     * {@link #addEmployee(Employee)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Employee> addEmployees(List<Employee> employees) {
+        employeeBatchRepository.insertAll(employees);
+        employeeChangeService.createdByIds(employees.stream().map(Employee::getId).toList());
+        for (Employee employee : employees) {
+            employeeSearchIndex.indexAfterCommit(employee);
+            departmentHeadcountService.added(employee.getDepartment());
+        }
+        return employees;
+    }
+
+    /**
+     * Replaces the fields of the employees with the given ids, in the caller's transaction, and writes them with a
+     * single flush that Hibernate sends in JDBC batches. Ids of employees that do not exist are skipped. As with
+     * {@link #addEmployees(List)} a duplicate email fails the whole transaction. Callers evict the updated
+     * employees from the cache once it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Employee> updateEmployees(Map<Long, Employee> updates) {
+        List<Employee> employees = employeeRepository.findAllById(updates.keySet());
+        for (Employee employee : employees) {
+            String fromDepartment = employee.getDepartment();
+            replaceFields(employee, updates.get(employee.getId()));
+            departmentHeadcountService.moved(fromDepartment, employee.getDepartment(), 1);
+        }
+        employeeRepository.flush();
+        employeeChangeService.updatedByIds(employees.stream().map(Employee::getId).toList());
+        employees.forEach(employeeSearchIndex::indexAfterCommit);
+        return employees;
+    }
+
+    /**
+     * Applies the non-null fields of the patch. When {@code expectedVersions} is given the stored version must be
+     * one of them. Only changed columns are written, and a patch that changes nothing issues no UPDATE.
+     */
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
+    public Employee patchEmployee(Long id, EmployeePatch patch, Set<Long> expectedVersions) {
+        Employee employee = employeeRepository.findById(id)
+                .orElseThrow(() -> new EmployeeNotFoundException("No employee found with id: " + id));
+        if (expectedVersions != null && !expectedVersions.contains(employee.getVersion())) {
+            throw new PreconditionFailedException("Employee " + id + " has changed, reload it and try again");
+        }
+
+        String fromDepartment = employee.getDepartment();
+        boolean changed = patch(patch.firstName(), employee::getFirstName, employee::setFirstName);
+        changed |= patch(patch.lastName(), employee::getLastName, employee::setLastName);
+        changed |= patch(patch.email(), employee::getEmail, employee::setEmail);
+        changed |= patch(patch.department(), employee::getDepartment, employee::setDepartment);
+        if (!changed) {
+            return employee;
+        }
+        Employee updated = saveUniqueEmail(employee);
+        employeeChangeService.updated(updated);
+        employeeSearchIndex.indexAfterCommit(updated);
+        departmentHeadcountService.moved(fromDepartment, updated.getDepartment(), 1);
+        return updated;
+    }
+
+    /**
+     * Marks the employee as deleted. It can be restored until it is purged (see {@link EmployeePurgeService}).
+     */
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
+    @Transactional
     public void deleteEmployee(Long id) {
-        if (!employeeRepository.existsById(id))
+        if (employeeRepository.deleteEmployeeById(id, clock.instant()) == 0)
             throw new EmployeeNotFoundException("No employee found with id: " + id);
-        employeeRepository.deleteById(id);
+        // read once the row is locked by the delete, so a restore or move that commits in between is not missed
+        String department = deletedEmployeeRepository.findDepartmentById(id).orElse(null);
+        employeeChangeService.deleted(id);
+        employeeSearchIndex.removeAfterCommit(id);
+        departmentHeadcountService.removed(department, 1);
+    }
+
+    /**
+     * Brings back an employee that was deleted and not purged yet, unless its email was given to another employee
+     * in the meantime. Recorded as created in the change log, since consumers have seen it deleted.
+     */
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = "#id")
+    public Employee restoreEmployee(Long id) {
+        try {
+            if (deletedEmployeeRepository.restore(id) == 0) {
+                throw new EmployeeNotFoundException("No deleted employee found with id: " + id);
+            }
+        } catch (DataIntegrityViolationException ex) {
+            if (!EmployeeAlreadyExistException.isDuplicateEmail(ex)) {
+                throw ex;
+            }
+            throw new EmployeeAlreadyExistException("The email of employee " + id + " already exist!");
+        }
+        Employee employee = employeeRepository.findById(id)
+                .orElseThrow(() -> new EmployeeNotFoundException("No employee found with id: " + id));
+        employeeChangeService.created(employee);
+        employeeSearchIndex.indexAfterCommit(employee);
+        departmentHeadcountService.added(employee.getDepartment());
+        return employee;
+    }
+
+    /**
+     * Moves employees to another department with set-based UPDATE statements, chunked for long id lists.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true)
+    public BulkResult updateDepartments(BulkDepartmentUpdate update) {
+        if (!hasText(update.department())) {
+            throw new InvalidRequestException("department is required");
+        }
+        if (hasIds(update.ids()) == hasText(update.fromDepartment())) {
+            throw new InvalidRequestException("Exactly one of ids or fromDepartment is required");
+        }
+        if (hasIds(update.ids())) {
+            departmentHeadcountService.reloadAfterCommit();
+            return new BulkResult(inChunks(update.ids(), ids -> {
+                employeeChangeService.departmentChanged(ids, update.department());
+                employeeSearchIndex.moveAfterCommit(ids, update.department());
+                return employeeRepository.bulkUpdateDepartmentByIds(ids, update.department());
+            }));
+        }
+        employeeChangeService.departmentChanged(update.fromDepartment(), update.department());
+        employeeSearchIndex.moveDepartmentAfterCommit(update.fromDepartment(), update.department());
+        int affected = employeeRepository.bulkUpdateDepartmentByDepartment(update.fromDepartment(), update.department());
+        departmentHeadcountService.moved(update.fromDepartment(), update.department(), affected);
+        return new BulkResult(affected);
+    }
+
+    /**
+     * Marks employees as deleted with set-based UPDATE statements, chunked for long id lists.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true)
+    public BulkResult deleteEmployees(BulkDelete delete) {
+        if (hasIds(delete.ids()) == hasText(delete.department())) {
+            throw new InvalidRequestException("Exactly one of ids or department is required");
+        }
+        Instant deletedAt = clock.instant();
+        if (hasIds(delete.ids())) {
+            departmentHeadcountService.reloadAfterCommit();
+            return new BulkResult(inChunks(delete.ids(), ids -> {
+                employeeChangeService.deleted(ids);
+                employeeSearchIndex.removeAfterCommit(ids);
+                return employeeRepository.bulkDeleteByIds(ids, deletedAt);
+            }));
+        }
+        employeeChangeService.deletedByDepartment(delete.department());
+        employeeSearchIndex.removeDepartmentAfterCommit(delete.department());
+        int affected = employeeRepository.bulkDeleteByDepartment(delete.department(), deletedAt);
+        departmentHeadcountService.removed(delete.department(), affected);
+        return new BulkResult(affected);
+    }
+
+    private static boolean patch(String value, Supplier<String> getter, Consumer<String> setter) {
+        if (value == null || Objects.equals(value, getter.get())) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
     }
 
-    private boolean emailAlreadyExist(String email) {
-        return employeeRepository.findEmployeeByEmail(email).isPresent();
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static boolean hasIds(List<Long> ids) {
+        return ids != null && !ids.isEmpty();
+    }
+
+    private static int inChunks(List<Long> ids, ToIntFunction<List<Long>> operation) {
+        int affected = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            affected += operation.applyAsInt(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size())));
+        }
+        return affected;
+    }
+
+    private static List<String> selectedFields(Collection<String> fields) {
+        for (String field : fields) {
+            if (!SELECTABLE_FIELDS.contains(field)) {
+                throw new InvalidRequestException("Unknown field: " + field + ", expected any of " + SELECTABLE_FIELDS);
+            }
+        }
+        return SELECTABLE_FIELDS.stream()
+                .filter(field -> field.equals("id") || fields.contains(field))
+                .toList();
+    }
+
+    private static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    private static EmployeePage toPage(List<Employee> employees, int pageSize) {
+        if (employees.size() <= pageSize) {
+            return new EmployeePage(employees, null);
+        }
+        List<Employee> page = employees.subList(0, pageSize);
+        return new EmployeePage(page, page.get(pageSize - 1).getId());
+    }
+
+    private static void replaceFields(Employee employee, Employee e) {
+        employee.setFirstName(e.getFirstName());
+        employee.setLastName(e.getLastName());
+        employee.setEmail(e.getEmail());
+        employee.setDepartment(e.getDepartment());
+    }
+
+    /**
+     * Email uniqueness is enforced by the unique index on the live_email column, so the write itself is
+     * the duplicate check. Violations of any other constraint are not about the email and are rethrown.
+     */
+    private Employee saveUniqueEmail(Employee e) {
+        try {
+            return employeeRepository.saveAndFlush(e);
+        } catch (DataIntegrityViolationException ex) {
+            if (!EmployeeAlreadyExistException.isDuplicateEmail(ex)) {
+                throw ex;
+            }
+            throw new EmployeeAlreadyExistException(e.getEmail() + " already exist!");
+        }
     }
 }
@@ -0,0 +1,274 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.config.CacheConfig;
+import com.ducvu.EmployeeManagement.exception.EmployeeAlreadyExistException;
+import com.ducvu.EmployeeManagement.exception.EmployeeNotFoundException;
+import com.ducvu.EmployeeManagement.exception.WriteQueueFullException;
+import com.ducvu.EmployeeManagement.exception.WriteStatusNotFoundException;
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.WriteStatus;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in write-behind mode for bursts of creates and updates. Writes are accepted into a bounded queue and a
+ * single background writer applies them in batches, one transaction per batch, through {@link EmployeeService}
+ * so headcounts, the search index and the change log stay consistent. The creates of a batch are inserted in one
+ * JDBC batch and its updates written with a single flush. A full queue rejects new writes instead of blocking.
+ * <p>
+ * Writes that would fail are filtered out before the batch is applied: updates of unknown employees, and emails
+ * owned by another employee in the database or claimed earlier in the same batch. If the batch still fails, for
+ * example because a concurrent request took an email, it is rolled back and every write is retried on its own.
+ * Enabled with {@code employee.writes.async.enabled=true}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "employee.writes.async.enabled", havingValue = "true")
+public class EmployeeWriteBehindService implements SmartLifecycle {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final EmployeeService employeeService;
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final BlockingQueue<PendingWrite> queue;
+    private final Cache<UUID, WriteStatus> statuses;
+    private final int batchSize;
+    /**
+     * Held while a write is queued and while the writer is stopped, so no write is accepted once the writer may
+     * have seen the last one.
+     */
+    private final Object lifecycleLock = new Object();
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public EmployeeWriteBehindService(EmployeeService employeeService,
+                                      EmployeeRepository employeeRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      CacheManager cacheManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${employee.writes.async.queue-capacity:10000}") int queueCapacity,
+                                      @Value("${employee.writes.async.batch-size:200}") int batchSize,
+                                      @Value("${employee.writes.async.status-retention:PT1H}") Duration statusRetention,
+                                      @Value("${employee.writes.async.status-capacity:100000}") long statusCapacity) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.queue = meterRegistry.gaugeCollectionSize("employee.writes.async.queue", Tags.empty(),
+                new ArrayBlockingQueue<>(queueCapacity));
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusRetention)
+                .maximumSize(statusCapacity)
+                .build();
+        this.batchSize = batchSize;
+    }
+
+    public WriteStatus submitAdd(Employee employee) {
+        return submit(new PendingWrite(UUID.randomUUID(), null, employee));
+    }
+
+    public WriteStatus submitUpdate(Employee employee, Long id) {
+        return submit(new PendingWrite(UUID.randomUUID(), id, employee));
+    }
+
+    public WriteStatus getStatus(UUID trackingId) {
+        WriteStatus status = statuses.getIfPresent(trackingId);
+        if (status == null) {
+            throw new WriteStatusNotFoundException("No write found with tracking id: " + trackingId);
+        }
+        return status;
+    }
+
+    private WriteStatus submit(PendingWrite write) {
+        WriteStatus status = WriteStatus.pending(write.trackingId());
+        synchronized (lifecycleLock) {
+            if (!running) {
+                throw new WriteQueueFullException("Not accepting writes while shutting down, retry later");
+            }
+            statuses.put(write.trackingId(), status);
+            if (!queue.offer(write)) {
+                statuses.invalidate(write.trackingId());
+                throw new WriteQueueFullException("Too many pending writes, retry later");
+            }
+        }
+        return status;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("employee-write-behind").start(this::drain);
+    }
+
+    /**
+     * Stops accepting writes and waits for the queued ones to be written.
+     */
+    @Override
+    public void stop() {
+        synchronized (lifecycleLock) {
+            running = false;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Lower than the web server's phase, so the writer starts before requests arrive and stops after they are done.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                statuses.putAll(write(batch));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Write-behind batch of {} writes failed", batch.size(), ex);
+                batch.forEach(write -> statuses.put(write.trackingId(), WriteStatus.failed(write.trackingId(), ex.getMessage())));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private Map<UUID, WriteStatus> write(List<PendingWrite> batch) {
+        try {
+            Map<UUID, WriteStatus> results = transactionTemplate.execute(status -> writeBatch(batch));
+            // the batch updated employees without the service's cache annotations
+            batch.stream().map(PendingWrite::id).filter(Objects::nonNull)
+                    .forEach(Objects.requireNonNull(cacheManager.getCache(CacheConfig.EMPLOYEES))::evict);
+            return results;
+        } catch (RuntimeException ex) {
+            Map<UUID, WriteStatus> results = new HashMap<>();
+            batch.forEach(write -> results.put(write.trackingId(), writeOne(write)));
+            return results;
+        }
+    }
+
+    private Map<UUID, WriteStatus> writeBatch(List<PendingWrite> batch) {
+        Set<Long> existingIds = employeeRepository.findAllById(batch.stream()
+                        .map(PendingWrite::id)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .stream()
+                .map(Employee::getId)
+                .collect(Collectors.toSet());
+        // an email is owned by the id of the employee that has it, or by the tracking id of the create claiming it
+        Map<String, Object> emailOwners = employeeRepository.findByEmailIn(batch.stream()
+                        .map(write -> write.employee().getEmail())
+                        .filter(Objects::nonNull)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Employee::getEmail, Employee::getId));
+
+        Map<UUID, WriteStatus> results = new LinkedHashMap<>();
+        List<PendingWrite> adds = new ArrayList<>();
+        Map<Long, Employee> updates = new HashMap<>();
+        for (PendingWrite write : batch) {
+            String email = write.employee().getEmail();
+            Object owner = write.id() != null ? write.id() : write.trackingId();
+            if (write.id() != null && !existingIds.contains(write.id())) {
+                results.put(write.trackingId(), WriteStatus.failed(write.trackingId(), "No employee found!"));
+            } else if (email != null && emailOwners.containsKey(email) && !emailOwners.get(email).equals(owner)) {
+                results.put(write.trackingId(), WriteStatus.failed(write.trackingId(), email + " already exist!"));
+            } else {
+                if (email != null) {
+                    emailOwners.put(email, owner);
+                }
+                if (write.id() == null) {
+                    adds.add(write);
+                } else {
+                    // a later update of the same employee in the batch replaces every field of an earlier one
+                    updates.put(write.id(), write.employee());
+                    results.put(write.trackingId(), WriteStatus.succeeded(write.trackingId(), write.id()));
+                }
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            employeeService.updateEmployees(updates);
+        }
+        if (!adds.isEmpty()) {
+            // copies, because the insert sets ids and versions that a rollback keeps and the retry must not see
+            List<Employee> added = adds.stream()
+                    .map(PendingWrite::employee)
+                    .map(e -> new Employee(e.getFirstName(), e.getLastName(), e.getEmail(), e.getDepartment()))
+                    .toList();
+            employeeService.addEmployees(added);
+            for (int i = 0; i < adds.size(); i++) {
+                UUID trackingId = adds.get(i).trackingId();
+                results.put(trackingId, WriteStatus.succeeded(trackingId, added.get(i).getId()));
+            }
+        }
+        return results;
+    }
+
+    private WriteStatus writeOne(PendingWrite write) {
+        try {
+            return WriteStatus.succeeded(write.trackingId(), apply(write).getId());
+        } catch (EmployeeAlreadyExistException | EmployeeNotFoundException ex) {
+            return WriteStatus.failed(write.trackingId(), ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.error("Write-behind write {} failed", write.trackingId(), ex);
+            return WriteStatus.failed(write.trackingId(), ex.getMessage());
+        }
+    }
+
+    private Employee apply(PendingWrite write) {
+        return write.id() == null
+                ? employeeService.addEmployee(write.employee())
+                : employeeService.updateEmployee(write.employee(), write.id());
+    }
+
+    private record PendingWrite(UUID trackingId, Long id, Employee employee) {
+    }
+}
@@ -1,3 +1,3 @@
-INSERT INTO employee VALUES (default, 'Viet', 'Vu', 'ducvu6637@gmail.com', 'IT');
-INSERT INTO employee VALUES (default, 'Kelly', 'Nguyen', 'kellyN@gmail.com', 'Customer Service');
-INSERT INTO employee VALUES (default, 'Jon', 'Nguyen', 'Jonvt2@gmail.com', 'Customer Service');
+INSERT INTO employee (first_name, last_name, email, department) VALUES ('Viet', 'Vu', 'ducvu6637@gmail.com', 'IT');
+INSERT INTO employee (first_name, last_name, email, department) VALUES ('Kelly', 'Nguyen', 'kellyN@gmail.com', 'Customer Service');
+INSERT INTO employee (first_name, last_name, email, department) VALUES ('Jon', 'Nguyen', 'Jonvt2@gmail.com', 'Customer Service');
@@ -1,3 +1,4 @@
+DROP TABLE employee_change IF EXISTS;
 DROP TABLE employee IF EXISTS;
 
 CREATE TABLE employee (
@@ -5,5 +6,27 @@ CREATE TABLE employee (
     first_name VARCHAR(30),
     last_name VARCHAR(30),
     email VARCHAR(255),
-    department VARCHAR(255)
-);
\ No newline at end of file
+    department VARCHAR(255),
+    version BIGINT DEFAULT 0 NOT NULL,
+    deleted_at TIMESTAMP(6) WITH TIME ZONE,
+    live_email VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN email END)
+);
+
+CREATE UNIQUE INDEX uk_employee_live_email ON employee (live_email);
+CREATE INDEX idx_employee_department ON employee (department);
+CREATE INDEX idx_employee_last_first_name ON employee (last_name, first_name);
+CREATE INDEX idx_employee_deleted_at ON employee (deleted_at);
+
+CREATE TABLE employee_change (
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    employee_id BIGINT NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    first_name VARCHAR(30),
+    last_name VARCHAR(30),
+    email VARCHAR(255),
+    department VARCHAR(255),
+    version BIGINT,
+    changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_employee_change_employee_id ON employee_change (employee_id);
\ No newline at end of file
@@ -0,0 +1,8 @@
+-- The schema before the migrations existed. Databases created then are baselined at this version.
+CREATE TABLE employee (
+    id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(30),
+    last_name VARCHAR(30),
+    email VARCHAR(255),
+    department VARCHAR(255)
+) engine=InnoDB;
@@ -0,0 +1,18 @@
+-- Existing rows take the default, so every employee starts at version 0.
+ALTER TABLE employee ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE employee ADD CONSTRAINT uk_employee_email UNIQUE (email);
+CREATE INDEX idx_employee_department ON employee (department);
+CREATE INDEX idx_employee_last_first_name ON employee (last_name, first_name);
+
+CREATE TABLE employee_change (
+    seq BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT UNSIGNED NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    first_name VARCHAR(30),
+    last_name VARCHAR(30),
+    email VARCHAR(255),
+    department VARCHAR(255),
+    version BIGINT,
+    changed_at DATETIME(6) NOT NULL,
+    KEY idx_employee_change_employee_id (employee_id)
+) engine=InnoDB;
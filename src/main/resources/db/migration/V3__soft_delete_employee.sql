@@ -0,0 +1,8 @@
+-- Deleted employees keep their row until purged. live_email is null once an employee is deleted, so its unique
+-- index only covers live employees and replaces the unique key on email. That key is added by V2, which runs on
+-- baselined databases too, so every database reaching this step has it.
+ALTER TABLE employee ADD COLUMN deleted_at DATETIME(6);
+ALTER TABLE employee ADD COLUMN live_email VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN email END);
+CREATE UNIQUE INDEX uk_employee_live_email ON employee (live_email);
+ALTER TABLE employee DROP CONSTRAINT uk_employee_email;
+CREATE INDEX idx_employee_deleted_at ON employee (deleted_at);
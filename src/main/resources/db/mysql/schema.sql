@@ -3,5 +3,25 @@ CREATE TABLE IF NOT EXISTS employee (
     first_name VARCHAR(30),
     last_name VARCHAR(30),
     email VARCHAR(255),
-    department VARCHAR(255)
+    department VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
+    deleted_at DATETIME(6),
+    live_email VARCHAR(255) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN email END),
+    UNIQUE KEY uk_employee_live_email (live_email),
+    KEY idx_employee_department (department),
+    KEY idx_employee_last_first_name (last_name, first_name),
+    KEY idx_employee_deleted_at (deleted_at)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS employee_change (
+    seq BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    employee_id BIGINT UNSIGNED NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    first_name VARCHAR(30),
+    last_name VARCHAR(30),
+    email VARCHAR(255),
+    department VARCHAR(255),
+    version BIGINT,
+    changed_at DATETIME(6) NOT NULL,
+    KEY idx_employee_change_employee_id (employee_id)
 ) engine=InnoDB;
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.ducvu.EmployeeManagement;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DatabaseMigrationTest {
+
+    private final DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @Test
+    void shouldMigrateADatabaseCreatedBeforeTheMigrations() {
+        jdbcTemplate.execute("""
+                CREATE TABLE employee (
+                    id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                    first_name VARCHAR(30),
+                    last_name VARCHAR(30),
+                    email VARCHAR(255),
+                    department VARCHAR(255)
+                ) engine=InnoDB""");
+        jdbcTemplate.update("INSERT INTO employee(id,first_name,last_name,email,department) "
+                + "VALUES (1, 'Viet', 'Vu', 'ducvu6637@gmail.com', 'IT')");
+
+        migrate();
+
+        assertThat(migrations()).containsExactly("1 BASELINE", "2 SQL", "3 SQL");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM employee WHERE id = 1", Long.class)).isZero();
+        assertMigratedSchema();
+    }
+
+    @Test
+    void shouldMigrateAnEmptyDatabase() {
+        migrate();
+
+        assertThat(migrations()).containsExactly("1 SQL", "2 SQL", "3 SQL");
+        jdbcTemplate.update("INSERT INTO employee(first_name,last_name,email,department) "
+                + "VALUES ('Viet', 'Vu', 'ducvu6637@gmail.com', 'IT')");
+        assertMigratedSchema();
+    }
+
+    private void migrate() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private List<String> migrations() {
+        return jdbcTemplate.queryForList("SELECT version || ' ' || type FROM flyway_schema_history "
+                + "WHERE version IS NOT NULL ORDER BY installed_rank", String.class);
+    }
+
+    private void assertMigratedSchema() {
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO employee(first_name,last_name,email,department) "
+                + "VALUES ('Other', 'Vu', 'ducvu6637@gmail.com', 'IT')"))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(jdbcTemplate.queryForList("SELECT constraint_name FROM information_schema.table_constraints "
+                + "WHERE table_name = 'employee' AND constraint_type = 'UNIQUE'", String.class)).isEmpty();
+        jdbcTemplate.update("UPDATE employee SET deleted_at = CURRENT_TIMESTAMP WHERE email = 'ducvu6637@gmail.com'");
+        jdbcTemplate.update("INSERT INTO employee(first_name,last_name,email,department) "
+                + "VALUES ('Other', 'Vu', 'ducvu6637@gmail.com', 'IT')");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM employee WHERE live_email = 'ducvu6637@gmail.com'",
+                Long.class)).isOne();
+
+        jdbcTemplate.update("INSERT INTO employee_change(employee_id,type,version,changed_at) "
+                + "VALUES (1, 'DELETED', 1, CURRENT_TIMESTAMP)");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM employee_change", Long.class)).isOne();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ducvu.EmployeeManagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaRoutingDataSource underTest =
+            new ReplicaRoutingDataSource(primary, replica, Duration.ofMinutes(1), Clock.systemUTC(), meterRegistry);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        given(primary.getConnection()).willReturn(primaryConnection);
+        given(replica.getConnection()).willReturn(replicaConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplica() throws SQLException {
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+
+        inTransaction(true);
+        assertThat(underTest.getConnection()).isSameAs(replicaConnection);
+
+        inTransaction(false);
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void shouldRouteConnectionsWithCredentialsTheSameWay() throws SQLException {
+        given(primary.getConnection("user", "secret")).willReturn(primaryConnection);
+        given(replica.getConnection("user", "secret")).willReturn(replicaConnection);
+
+        inTransaction(true);
+        assertThat(underTest.getConnection("user", "secret")).isSameAs(replicaConnection);
+
+        inTransaction(false);
+        assertThat(underTest.getConnection("user", "secret")).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void shouldReadFromPrimaryAfterWriteInSameRequest() throws SQLException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        inTransaction(false);
+        underTest.getConnection();
+        inTransaction(true);
+
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhileReplicaIsDown() throws SQLException {
+        given(replica.getConnection()).willThrow(new SQLException("Connection refused"));
+        inTransaction(true);
+
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+
+        verify(replica, times(1)).getConnection();
+        assertThat(meterRegistry.get("employee.datasource.replica.fallback").counter().count()).isEqualTo(1);
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
@@ -1,8 +1,24 @@
 package com.ducvu.EmployeeManagement.controller;
 
+import com.ducvu.EmployeeManagement.exception.InvalidRequestException;
+import com.ducvu.EmployeeManagement.exception.PreconditionFailedException;
+import com.ducvu.EmployeeManagement.model.BulkDelete;
+import com.ducvu.EmployeeManagement.model.BulkDepartmentUpdate;
+import com.ducvu.EmployeeManagement.model.BulkResult;
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
 import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeChange;
+import com.ducvu.EmployeeManagement.model.EmployeeChangePage;
+import com.ducvu.EmployeeManagement.model.EmployeeFields;
+import com.ducvu.EmployeeManagement.model.EmployeeFieldsPage;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchHit;
+import com.ducvu.EmployeeManagement.model.EmployeePage;
+import com.ducvu.EmployeeManagement.model.EmployeePatch;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchCriteria;
 import com.ducvu.EmployeeManagement.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,21 +28,40 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = EmployeeController.class)
@@ -50,29 +85,207 @@ public class EmployeeControllerTest {
                 new Employee("First2", "Last2", "test2@gmail.com", "test")
         );
 
-        given(employeeService.getAllEmployees()).willReturn(employees);
+        given(employeeService.getEmployeesETag()).willReturn("W/\"2\"");
+        given(employeeService.getEmployees(null, EmployeeService.DEFAULT_PAGE_SIZE))
+                .willReturn(new EmployeePage(employees, null));
 
         mockMvc.perform(get("/api/v1/employees")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(employees.size())));
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2\""))
+                .andExpect(jsonPath("$.employees", hasSize(employees.size())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldNotBuildEmployeesWhenCollectionIsUnchanged() throws Exception {
+        given(employeeService.getEmployeesETag()).willReturn("W/\"2\"");
+
+        mockMvc.perform(get("/api/v1/employees")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(employeeService, never()).getEmployees(any(), anyInt());
+    }
+
+    @Test
+    void shouldGetEmployeesAfterCursor() throws Exception {
+        List<Employee> employees = List.of(new Employee(11L, "First", "Last", "test@gmail.com", "test"));
+
+        given(employeeService.getEmployeesETag()).willReturn("W/\"11\"");
+        given(employeeService.getEmployees(10L, 1)).willReturn(new EmployeePage(employees, 11L));
+
+        mockMvc.perform(get("/api/v1/employees?after=10&limit=1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", CoreMatchers.is(11)));
+    }
+
+    @Test
+    void shouldGetOnlyRequestedFields() throws Exception {
+        List<EmployeeFields> employees = List.of(new EmployeeFields(11L, "First", null, null, null, null));
+
+        given(employeeService.getEmployeesETag()).willReturn("W/\"11\"");
+        given(employeeService.getEmployees(null, EmployeeService.DEFAULT_PAGE_SIZE, List.of("firstName")))
+                .willReturn(new EmployeeFieldsPage(employees, null));
+
+        mockMvc.perform(get("/api/v1/employees?fields=firstName")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees[0].firstName", CoreMatchers.is("First")))
+                .andExpect(jsonPath("$.employees[0].email").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectUnknownSearchField() throws Exception {
+        given(employeeService.searchEmployees(new EmployeeSearchCriteria("IT", null, null), null,
+                EmployeeService.DEFAULT_PAGE_SIZE, List.of("id", "salary")))
+                .willThrow(new InvalidRequestException("Unknown field: salary"));
+
+        mockMvc.perform(get("/api/v1/employees/search?department=IT&fields=id,salary")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", CoreMatchers.is("Unknown field: salary")));
+    }
+
+    @Test
+    void shouldSearchEmployees() throws Exception {
+        List<Employee> employees = List.of(new Employee(3L, "First", "Last", "test@gmail.com", "test"));
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria("test", null, "La");
+
+        given(employeeService.searchEmployees(criteria, null, EmployeeService.DEFAULT_PAGE_SIZE))
+                .willReturn(new EmployeePage(employees, null));
+
+        mockMvc.perform(get("/api/v1/employees/search?department=test&lastName=La")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employees", hasSize(1)))
+                .andExpect(jsonPath("$.employees[0].lastName", CoreMatchers.is("Last")));
+    }
+
+    @Test
+    void shouldStreamEmployeesAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(new Employee(1L, "First1", "Last1", "test1@gmail.com", "test"));
+            consumer.accept(new Employee(2L, "First2", "Last2", "test2@gmail.com", "test"));
+            return null;
+        }).when(employeeService).streamEmployees(any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/employees/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(2);
+        assertThat(objectMapper.readValue(body.lines().toList().get(1), Employee.class).getId()).isEqualTo(2L);
     }
 
     @Test
     void shouldGetEmployeeById() throws Exception {
         long employeeId = 1;
 
-        Employee employee = new Employee("First", "Last", "test@gmail.com", "test");
+        Employee employee = new Employee(employeeId, "First", "Last", "test@gmail.com", "test", 3L);
         given(employeeService.getEmployeeById(employeeId)).willReturn(employee);
 
         mockMvc.perform(get("/api/v1/employees/employee/1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                 .andExpect(jsonPath("$.firstName", CoreMatchers.is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", CoreMatchers.is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
     }
 
+    @Test
+    void shouldEncodeEmployeePageAsCborWhenAccepted() throws Exception {
+        List<Employee> employees = List.of(new Employee(11L, "First", "Last", "test@gmail.com", "test"));
+
+        given(employeeService.getEmployeesETag()).willReturn("W/\"11\"");
+        given(employeeService.getEmployees(null, EmployeeService.DEFAULT_PAGE_SIZE)).willReturn(new EmployeePage(employees, null));
+
+        byte[] body = mockMvc.perform(get("/api/v1/employees")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, CoreMatchers.hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        EmployeePage page = new CBORMapper().readValue(body, EmployeePage.class);
+        assertThat(page.employees()).extracting(Employee::getEmail).containsExactly("test@gmail.com");
+    }
+
+    @Test
+    void shouldAcceptSmileRequestBody() throws Exception {
+        Employee employee = new Employee(1L, "First", "Last", "test@gmail.com", "test");
+        given(employeeService.addEmployee(any(Employee.class))).willReturn(employee);
+
+        mockMvc.perform(post("/api/v1/employees")
+                        .contentType("application/x-jackson-smile")
+                        .content(new SmileMapper().writeValueAsBytes(employee))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email", CoreMatchers.is("test@gmail.com")));
+    }
+
+    @Test
+    void shouldTagEachEncodingOfAnEmployeeSeparately() throws Exception {
+        given(employeeService.getEmployeeById(1L))
+                .willReturn(new Employee(1L, "First", "Last", "test@gmail.com", "test", 3L));
+
+        mockMvc.perform(get("/api/v1/employees/employee/1")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+        mockMvc.perform(get("/api/v1/employees/employee/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldNotTagPageWhileCollectionIsChanging() throws Exception {
+        given(employeeService.getEmployeesETag()).willReturn(null);
+        given(employeeService.getEmployees(null, EmployeeService.DEFAULT_PAGE_SIZE))
+                .willReturn(new EmployeePage(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/employees")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"41\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void shouldReturnNotModifiedForUnchangedEmployee() throws Exception {
+        long employeeId = 1;
+        given(employeeService.getEmployeeById(employeeId))
+                .willReturn(new Employee(employeeId, "First", "Last", "test@gmail.com", "test", 3L));
+
+        mockMvc.perform(get("/api/v1/employees/employee/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldNotReportTooLongValueAsDuplicateEmail() throws Exception {
+        given(employeeService.addEmployee(any(Employee.class))).willThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("Data too long for column 'first_name'", "22001")));
+
+        mockMvc.perform(post("/api/v1/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Employee("First", "Last", "test@gmail.com", "test"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", CoreMatchers.is("Employee has a value that is too long or missing")));
+    }
+
     @Test
     void shouldAddNewEmployee() throws Exception {
 
@@ -106,6 +319,66 @@ public class EmployeeControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void shouldPatchEmployeeWithExpectedVersion() throws Exception {
+        long employeeId = 1;
+        EmployeePatch employeePatch = new EmployeePatch(null, null, null, "newDP");
+        given(employeeService.patchEmployee(employeeId, employeePatch, Set.of(3L)))
+                .willReturn(new Employee(employeeId, "First", "Last", "test@gmail.com", "newDP", 4L));
+
+        mockMvc.perform(patch("/api/v1/employees/update/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"department\": \"newDP\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.department", CoreMatchers.is("newDP")));
+    }
+
+    @Test
+    void shouldAcceptAnyStrongTagOfTheIfMatchList() throws Exception {
+        long employeeId = 1;
+        EmployeePatch employeePatch = new EmployeePatch(null, null, null, "newDP");
+        given(employeeService.patchEmployee(employeeId, employeePatch, Set.of(3L, 4L)))
+                .willReturn(new Employee(employeeId, "First", "Last", "test@gmail.com", "newDP", 5L));
+
+        mockMvc.perform(patch("/api/v1/employees/update/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\", W/\"7\", \"x\", \"4-cbor\", \"5-xml\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"department\": \"newDP\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    @Test
+    void shouldReturnPreconditionFailedWhenNoTagMatches() throws Exception {
+        long employeeId = 1;
+        EmployeePatch employeePatch = new EmployeePatch("UFirst", null, null, null);
+        given(employeeService.patchEmployee(employeeId, employeePatch, Set.of()))
+                .willThrow(new PreconditionFailedException("Employee 1 has changed, reload it and try again"));
+
+        mockMvc.perform(patch("/api/v1/employees/update/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employeePatch)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void shouldReturnConflictForConcurrentEdit() throws Exception {
+        long employeeId = 1;
+        EmployeePatch employeePatch = new EmployeePatch("UFirst", null, null, null);
+        given(employeeService.patchEmployee(employeeId, employeePatch, null))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        mockMvc.perform(patch("/api/v1/employees/update/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employeePatch)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     void shouldDeleteEmployee() throws Exception {
         long employeeId = 1;
@@ -116,5 +389,77 @@ public class EmployeeControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void shouldRestoreEmployeeWithoutExposingDeletionColumns() throws Exception {
+        Employee employee = new Employee(1L, "First", "Last", "test@gmail.com", "test", 3L);
+        given(employeeService.restoreEmployee(1L)).willReturn(employee);
 
+        mockMvc.perform(put("/api/v1/employees/restore/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$.deletedAt").doesNotExist())
+                .andExpect(jsonPath("$.liveEmail").doesNotExist());
+    }
+
+    @Test
+    void shouldUpdateDepartmentsInBulk() throws Exception {
+        BulkDepartmentUpdate update = new BulkDepartmentUpdate(List.of(1L, 2L), null, "newDP");
+        given(employeeService.updateDepartments(update)).willReturn(new BulkResult(2));
+
+        mockMvc.perform(put("/api/v1/employees/bulk/department")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected", CoreMatchers.is(2)));
+    }
+
+    @Test
+    void shouldRejectInvalidBulkDelete() throws Exception {
+        BulkDelete delete = new BulkDelete(null, null);
+        given(employeeService.deleteEmployees(delete))
+                .willThrow(new InvalidRequestException("Exactly one of ids or department is required"));
+
+        mockMvc.perform(post("/api/v1/employees/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(delete)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", CoreMatchers.is("Exactly one of ids or department is required")));
+    }
+
+    @Test
+    void shouldReturnDepartmentHeadcounts() throws Exception {
+        given(employeeService.getDepartmentHeadcounts()).willReturn(List.of(
+                new DepartmentHeadcount("HR", 1),
+                new DepartmentHeadcount("IT", 2)));
+
+        mockMvc.perform(get("/api/v1/employees/aggregates/headcount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].department", CoreMatchers.is("IT")))
+                .andExpect(jsonPath("$[1].headcount", CoreMatchers.is(2)));
+    }
+
+    @Test
+    void shouldReturnChangesAfterSequence() throws Exception {
+        EmployeeChange tombstone = new EmployeeChange(3L, Instant.parse("2026-01-01T00:00:00Z"));
+        tombstone.setSequence(42L);
+        given(employeeService.getChanges(41L, EmployeeService.DEFAULT_PAGE_SIZE))
+                .willReturn(new EmployeeChangePage(List.of(tombstone), 42L));
+
+        mockMvc.perform(get("/api/v1/employees/changes").param("after", "41"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].type", CoreMatchers.is("DELETED")))
+                .andExpect(jsonPath("$.changes[0].employeeId", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$.nextCursor", CoreMatchers.is(42)));
+    }
+
+    @Test
+    void shouldReturnFuzzySearchHits() throws Exception {
+        given(employeeService.fuzzySearch("kely", 20)).willReturn(List.of(
+                new EmployeeSearchHit(2L, "Kelly", "Nguyen", "kellyN@gmail.com", "Customer Service", 0.75)));
+
+        mockMvc.perform(get("/api/v1/employees/search/fuzzy").param("q", "kely"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$[0].score", CoreMatchers.is(0.75)));
+    }
 }
@@ -0,0 +1,41 @@
+package com.ducvu.EmployeeManagement.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTest {
+
+    @Test
+    void shouldPassRequestWhenPermitIsAvailable() throws Exception {
+        ConcurrencyLimitFilter underTest = new ConcurrencyLimitFilter(1, Duration.ZERO);
+        MockFilterChain chain = new MockFilterChain();
+
+        underTest.doFilter(new MockHttpServletRequest("GET", "/api/v1/employees"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(new MockHttpServletRequest("GET", "/api/v1/employees"), response, new MockFilterChain());
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void shouldRejectRequestWhenNoPermitBecomesAvailable() throws Exception {
+        ConcurrencyLimitFilter underTest = new ConcurrencyLimitFilter(0, Duration.ofMillis(10));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        underTest.doFilter(new MockHttpServletRequest("GET", "/api/v1/employees"), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+}
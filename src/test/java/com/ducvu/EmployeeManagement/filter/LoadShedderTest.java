@@ -0,0 +1,44 @@
+package com.ducvu.EmployeeManagement.filter;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadShedderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoadShedder underTest = new LoadShedder(meterRegistry, Duration.ofMillis(500), Duration.ofMillis(100), 4);
+
+    @Test
+    void shouldShedWhileMeanLatencyIsOverThreshold() {
+        underTest.record(Duration.ofMillis(100).toNanos());
+        underTest.record(Duration.ofMillis(1100).toNanos());
+        underTest.sample();
+
+        assertThat(underTest.cost()).isEqualTo(4);
+        assertThat(meterRegistry.get("employee.load-shedding.active").gauge().value()).isEqualTo(1);
+
+        underTest.record(Duration.ofMillis(100).toNanos());
+        underTest.sample();
+
+        assertThat(underTest.cost()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldShedOnlyForPoolWaitsSinceLastSample() {
+        Timer acquire = meterRegistry.timer(LoadShedder.POOL_ACQUIRE_TIMER, "pool", "primary");
+        acquire.record(Duration.ofMillis(300));
+        underTest.sample();
+
+        assertThat(underTest.isOverloaded()).isTrue();
+
+        acquire.record(Duration.ofMillis(1));
+        underTest.sample();
+
+        assertThat(underTest.isOverloaded()).isFalse();
+    }
+}
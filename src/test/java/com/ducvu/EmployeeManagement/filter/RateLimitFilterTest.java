@@ -0,0 +1,128 @@
+package com.ducvu.EmployeeManagement.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final LoadShedder loadShedder = new LoadShedder(meterRegistry, Duration.ofMillis(500), Duration.ofMillis(100), 4);
+    private final RateLimitFilter underTest = new RateLimitFilter(
+            List.of(new RateLimitFilter.Route("list", "GET", "/api/v1/employees", 1, 2),
+                    new RateLimitFilter.Route("default", null, "/**", 10, 10)),
+            Set.of("sync-job"), loadShedder, meterRegistry, 100, Duration.ofMinutes(10), now::get);
+
+    @Test
+    void shouldRejectRequestsOverTheRouteLimitWithRetryAfter() throws Exception {
+        assertThat(perform("GET", "/api/v1/employees", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform("GET", "/api/v1/employees", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse response = perform("GET", "/api/v1/employees", "10.0.0.1");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(meterRegistry.get("employee.rate-limit.requests").tag("route", "list").tag("outcome", "limited")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRefillTokensOverTime() throws Exception {
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(perform("GET", "/api/v1/employees", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerClientAndRoute() throws Exception {
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+
+        assertThat(perform("GET", "/api/v1/employees", "10.0.0.2").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(perform("GET", "/api/v1/employees/employee/1", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void shouldIdentifyClientsByApiKey() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/v1/employees", "10.0.0.1");
+        request.addHeader(RateLimitFilter.API_KEY_HEADER, "sync-job");
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void shouldIdentifyClientsWithUnknownApiKeysByAddress() throws Exception {
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+        perform("GET", "/api/v1/employees", "10.0.0.1");
+        MockHttpServletRequest request = request("GET", "/api/v1/employees", "10.0.0.1");
+        request.addHeader(RateLimitFilter.API_KEY_HEADER, "made-up");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void shouldChargeMoreWhileShedding() throws Exception {
+        loadShedder.record(Duration.ofSeconds(1).toNanos());
+        loadShedder.sample();
+
+        MockHttpServletResponse response = perform("GET", "/api/v1/employees/employee/1", "10.0.0.1");
+        for (int i = 0; i < 2; i++) {
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+            response = perform("GET", "/api/v1/employees/employee/1", "10.0.0.1");
+        }
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(meterRegistry.get("employee.rate-limit.requests").tag("route", "default").tag("outcome", "shed")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldChargeNoMoreThanTheBurstWhileShedding() throws Exception {
+        loadShedder.record(Duration.ofSeconds(1).toNanos());
+        loadShedder.sample();
+
+        assertThat(perform("GET", "/api/v1/employees", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+        MockHttpServletResponse response = perform("GET", "/api/v1/employees", "10.0.0.1");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(perform("GET", "/api/v1/employees", "10.0.0.1").getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String address) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request(method, uri, address), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(address);
+        return request;
+    }
+}
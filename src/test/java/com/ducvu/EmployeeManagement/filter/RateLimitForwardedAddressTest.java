@@ -0,0 +1,49 @@
+package com.ducvu.EmployeeManagement.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the real server, since the forwarded address is applied by Tomcat before any filter.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.forward-headers-strategy=native",
+        "employee.rate-limit.enabled=true",
+        "employee.rate-limit.requests-per-second=0.001",
+        "employee.rate-limit.burst=1",
+        "employee.rate-limit.max-clients=100",
+        "employee.rate-limit.client-idle-timeout=PT10M",
+        "employee.rate-limit.shedding.latency-threshold=1m",
+        "employee.rate-limit.shedding.pool-wait-threshold=1m",
+        "employee.rate-limit.shedding.cost=1"})
+public class RateLimitForwardedAddressTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void shouldLimitClientsBehindAProxyByTheirForwardedAddress() throws Exception {
+        assertThat(send("203.0.113.1")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(send("203.0.113.1")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        assertThat(send("203.0.113.2")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private int send(String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees/employee/1"))
+                .header("X-Forwarded-For", forwardedFor)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,159 @@
+package com.ducvu.EmployeeManagement.load;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import com.ducvu.EmployeeManagement.service.DepartmentHeadcountService;
+import com.ducvu.EmployeeManagement.service.EmployeeSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs writers against the real server and database at the same time, then checks the outcome and the
+ * {@link EmployeeInvariants}. Threads wait on a common gate so their requests overlap as much as possible.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class EmployeeConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM employee_change");
+        jdbcTemplate.update("DELETE FROM employee");
+        context.getBean(EmployeeSearchIndex.class).rebuild();
+        context.getBean(DepartmentHeadcountService.class).reload();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldCreateOneEmployeeWhenTheSameEmailIsAddedConcurrently() throws Exception {
+        String body = "{\"firstName\": \"Same\", \"lastName\": \"Email\", \"email\": \"same@gmail.com\", \"department\": \"IT\"}";
+
+        List<Integer> statuses = concurrently(THREADS, thread -> send(request("")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build()));
+
+        assertThat(statuses).containsOnly(201, 400).containsOnlyOnce(201);
+        assertThat(EmployeeInvariants.violations(context)).isEmpty();
+    }
+
+    @Test
+    void shouldAcceptOneOfConcurrentPatchesWithTheSameVersion() throws Exception {
+        Long id = employeeRepository.save(new Employee("First", "Last", "patched@gmail.com", "IT")).getId();
+        context.getBean(EmployeeSearchIndex.class).rebuild();
+        context.getBean(DepartmentHeadcountService.class).reload();
+
+        List<Integer> statuses = concurrently(THREADS, thread -> send(request("/update/" + id)
+                .header("Content-Type", "application/json")
+                .header("If-Match", "\"0\"")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"department\": \"Department" + thread + "\"}"))
+                .build()));
+
+        // 412 for patches that read the employee after the winner committed, 409 for ones that lost at the write
+        assertThat(statuses).containsOnly(200, 409, 412).containsOnlyOnce(200);
+        assertThat(employeeRepository.findById(id).orElseThrow().getVersion()).isEqualTo(1);
+        assertThat(EmployeeInvariants.violations(context)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepDerivedStateConsistentUnderMixedLoad() throws Exception {
+        EmployeeWorkload workload = new EmployeeWorkload("http://localhost:" + port + "/api/v1/employees", 20, 0);
+
+        concurrently(THREADS, thread -> {
+            SplittableRandom random = new SplittableRandom(thread);
+            for (int i = 0; i < 40; i++) {
+                if (random.nextBoolean()) {
+                    workload.read(random);
+                } else {
+                    workload.write(random);
+                }
+            }
+            return 0;
+        });
+
+        assertThat(workload.unexpected()).isEmpty();
+        assertThat(EmployeeInvariants.violations(context)).isEmpty();
+    }
+
+    @Test
+    void shouldReportStateThatMissedAWrite() {
+        employeeRepository.save(new Employee("Not", "Indexed", "bypass@gmail.com", "IT"));
+
+        assertThat(EmployeeInvariants.violations(context))
+                .anyMatch(violation -> violation.startsWith("Department headcounts"))
+                .anyMatch(violation -> violation.startsWith("Search index"));
+    }
+
+    private List<Integer> concurrently(int threads, ThreadTask task) throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            int index = thread;
+            Callable<Integer> call = () -> {
+                gate.await();
+                return task.run(index);
+            };
+            futures.add(executor.submit(call));
+        }
+        gate.countDown();
+        List<Integer> results = new ArrayList<>(threads);
+        for (Future<Integer> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/employees" + path));
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private interface ThreadTask {
+        int run(int thread) throws Exception;
+    }
+}
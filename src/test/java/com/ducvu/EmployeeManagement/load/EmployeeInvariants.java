@@ -0,0 +1,53 @@
+package com.ducvu.EmployeeManagement.load;
+
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import com.ducvu.EmployeeManagement.service.DepartmentHeadcountService;
+import com.ducvu.EmployeeManagement.service.EmployeeSearchIndex;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Checks that the employee table and the state derived from it agree once writers have stopped. Shared by the
+ * concurrency tests and the load benchmark.
+ */
+public final class EmployeeInvariants {
+
+    private EmployeeInvariants() {
+    }
+
+    public static List<String> violations(ApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<String> violations = new ArrayList<>();
+
+        List<String> duplicates = jdbcTemplate.queryForList(
+                "SELECT email FROM employee WHERE deleted_at IS NULL GROUP BY email HAVING COUNT(*) > 1", String.class);
+        if (!duplicates.isEmpty()) {
+            violations.add("Emails shared by live employees: " + duplicates);
+        }
+
+        List<DepartmentHeadcount> headcounts = context.getBean(EmployeeRepository.class).countByDepartment();
+        List<DepartmentHeadcount> cached = context.getBean(DepartmentHeadcountService.class).getHeadcounts();
+        if (!new HashSet<>(headcounts).equals(new HashSet<>(cached))) {
+            violations.add("Department headcounts are " + cached + " but the database has " + headcounts);
+        }
+
+        long live = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee WHERE deleted_at IS NULL", Long.class);
+        int indexed = context.getBean(EmployeeSearchIndex.class).size();
+        if (indexed != live) {
+            violations.add("Search index has " + indexed + " employees but the database has " + live);
+        }
+
+        List<Long> stale = jdbcTemplate.queryForList("SELECT e.id FROM employee e JOIN employee_change c "
+                + "ON c.seq = (SELECT MAX(seq) FROM employee_change WHERE employee_id = e.id) "
+                + "WHERE e.deleted_at IS NULL AND (c.type = 'DELETED' OR c.version <> e.version)", Long.class);
+        if (!stale.isEmpty()) {
+            violations.add("Latest change log entry does not match the employee for ids " + stale);
+        }
+        return violations;
+    }
+}
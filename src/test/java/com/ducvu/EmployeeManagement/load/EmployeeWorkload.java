@@ -0,0 +1,161 @@
+package com.ducvu.EmployeeManagement.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Random mix of employee API calls over HTTP. Emails and departments are drawn from small pools so that concurrent
+ * writers keep colliding on the same rows and the same unique index entries. Every response is checked against the
+ * statuses its call may legitimately answer, and the others are collected as {@link #unexpected()}.
+ */
+public class EmployeeWorkload {
+
+    private static final int DEPARTMENTS = 5;
+    private static final int MAX_UNEXPECTED = 20;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int emails;
+    private final AtomicLong maxId;
+    private final List<String> unexpected = new ArrayList<>();
+
+    /**
+     * @param baseUrl the employee API, e.g. {@code http://localhost:8080/api/v1/employees}
+     * @param emails  size of the email pool new and patched employees draw from
+     * @param maxId   highest employee id already in the database
+     */
+    public EmployeeWorkload(String baseUrl, int emails, long maxId) {
+        this.baseUrl = baseUrl;
+        this.emails = emails;
+        this.maxId = new AtomicLong(maxId);
+    }
+
+    public int read(SplittableRandom random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> send(get("/employee/" + anyId(random)), 200, 404);
+            case 1 -> send(get("?after=" + anyId(random) + "&limit=20"), 200);
+            case 2 -> send(get("/search?department=" + department(random) + "&limit=20"), 200);
+            default -> send(get("/search/fuzzy?q=" + email(random).substring(0, 6) + "&limit=20"), 200);
+        };
+    }
+
+    public int write(SplittableRandom random) {
+        return switch (random.nextInt(5)) {
+            case 0, 1 -> add(random);
+            case 2 -> patch(random);
+            case 3 -> send(request("/delete/" + anyId(random)).DELETE().build(), 204, 404);
+            default -> send(request("/restore/" + anyId(random)).PUT(HttpRequest.BodyPublishers.noBody()).build(),
+                    200, 400, 404);
+        };
+    }
+
+    /**
+     * Calls answered with a status they should never get, at most the first {@value #MAX_UNEXPECTED}.
+     */
+    public List<String> unexpected() {
+        synchronized (unexpected) {
+            return List.copyOf(unexpected);
+        }
+    }
+
+    private int add(SplittableRandom random) {
+        String body = "{\"firstName\": \"Load\", \"lastName\": \"Test\", \"email\": \"" + email(random)
+                + "\", \"department\": \"" + department(random) + "\"}";
+        HttpResponse<String> response = sendForBody(json("").POST(HttpRequest.BodyPublishers.ofString(body)).build());
+        if (response.statusCode() == 201) {
+            maxId.accumulateAndGet(readTree(response.body()).get("id").asLong(), Math::max);
+        }
+        return check(response, 201, 400);
+    }
+
+    /**
+     * Read, modify and write back with the entity tag of the read, as an editing client would.
+     */
+    private int patch(SplittableRandom random) {
+        long id = anyId(random);
+        HttpResponse<String> current = sendForBody(get("/employee/" + id));
+        if (current.statusCode() != 200) {
+            return check(current, 404);
+        }
+        String body = random.nextInt(4) == 0
+                ? "{\"email\": \"" + email(random) + "\"}"
+                : "{\"department\": \"" + department(random) + "\"}";
+        HttpRequest patch = json("/update/" + id)
+                .header("If-Match", current.headers().firstValue("ETag").orElseThrow())
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return send(patch, 200, 400, 404, 409, 412);
+    }
+
+    private long anyId(SplittableRandom random) {
+        return random.nextLong(1, maxId.get() + 2);
+    }
+
+    private String email(SplittableRandom random) {
+        return "load" + random.nextInt(emails) + "@loadtest.com";
+    }
+
+    private static String department(SplittableRandom random) {
+        return "Load" + random.nextInt(DEPARTMENTS);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder json(String path) {
+        return request(path).header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path));
+    }
+
+    private int send(HttpRequest request, Integer... expected) {
+        return check(sendForBody(request), expected);
+    }
+
+    private HttpResponse<String> sendForBody(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private int check(HttpResponse<String> response, Integer... expected) {
+        if (!Set.of(expected).contains(response.statusCode())) {
+            synchronized (unexpected) {
+                if (unexpected.size() < MAX_UNEXPECTED) {
+                    unexpected.add(response.request().method() + " " + response.request().uri() + " answered "
+                            + response.statusCode() + ": " + response.body());
+                }
+            }
+        }
+        return response.statusCode();
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ducvu.EmployeeManagement.repository;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class EmployeeChangeRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Autowired
+    private EmployeeChangeRepository underTest;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private Employee viet;
+    private Employee kelly;
+
+    @BeforeEach
+    void setUp() {
+        viet = employeeRepository.save(new Employee("Viet", "Vu", "ducvu6637@gmail.com", "IT"));
+        kelly = employeeRepository.save(new Employee("Kelly", "Nguyen", "kellyN@gmail.com", "Customer Service"));
+    }
+
+    @Test
+    void shouldRecordDepartmentChangesWithTheNewDepartmentAndVersion() {
+        underTest.insertDepartmentChangesByDepartment("Customer Service", "Support", NOW);
+
+        assertThat(underTest.findBySequenceGreaterThanOrderBySequenceAsc(0L, PageRequest.of(0, 10)))
+                .singleElement()
+                .extracting(EmployeeChange::getEmployeeId, EmployeeChange::getType,
+                        EmployeeChange::getEmail, EmployeeChange::getDepartment, EmployeeChange::getVersion)
+                .containsExactly(kelly.getId(), EmployeeChange.Type.UPDATED, "kellyN@gmail.com", "Support", 1L);
+    }
+
+    @Test
+    void shouldRecordCreatedEmployeesAndTombstonesInSequence() {
+        underTest.insertCreatedByEmails(List.of("ducvu6637@gmail.com", "kellyN@gmail.com"), NOW);
+        underTest.insertTombstonesByIds(List.of(viet.getId()), NOW);
+
+        List<EmployeeChange> changes = underTest.findBySequenceGreaterThanOrderBySequenceAsc(0L, PageRequest.of(0, 10));
+
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(
+                EmployeeChange.Type.CREATED, EmployeeChange.Type.CREATED, EmployeeChange.Type.DELETED);
+        assertThat(changes.get(2).getEmployeeId()).isEqualTo(viet.getId());
+        assertThat(changes.get(2).getEmail()).isNull();
+        assertThat(underTest.findBySequenceGreaterThanOrderBySequenceAsc(changes.get(1).getSequence(), PageRequest.of(0, 10)))
+                .containsExactly(changes.get(2));
+    }
+
+    @Test
+    void shouldCompactOnlyOldTombstonesAndSupersededEntries() {
+        Instant old = NOW.minusSeconds(3600);
+        EmployeeChange vietCreated = underTest.save(new EmployeeChange(EmployeeChange.Type.CREATED, viet, old));
+        EmployeeChange kellyCreated = underTest.save(new EmployeeChange(EmployeeChange.Type.CREATED, kelly, old));
+        EmployeeChange kellyUpdated = underTest.save(new EmployeeChange(EmployeeChange.Type.UPDATED, kelly, old));
+        EmployeeChange vietDeleted = underTest.save(new EmployeeChange(viet.getId(), old));
+        underTest.save(new EmployeeChange(EmployeeChange.Type.UPDATED, kelly, NOW));
+
+        assertThat(underTest.findCompactable(NOW.minusSeconds(60), PageRequest.of(0, 10)))
+                .containsExactlyInAnyOrder(vietCreated.getSequence(), kellyCreated.getSequence(),
+                        kellyUpdated.getSequence(), vietDeleted.getSequence());
+        assertThat(underTest.findCompactable(NOW.minusSeconds(7200), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void shouldKeepTheLastEntryWhenCompacting() {
+        underTest.insertTombstonesByIds(List.of(viet.getId(), kelly.getId()), NOW);
+        List<EmployeeChange> changes = underTest.findBySequenceGreaterThanOrderBySequenceAsc(0L, PageRequest.of(0, 10));
+
+        assertThat(underTest.findCompactable(NOW.plusSeconds(1), PageRequest.of(0, 10)))
+                .containsExactly(changes.get(0).getSequence());
+        assertThat(underTest.findMaxSequence()).isEqualTo(changes.get(1).getSequence());
+    }
+}
@@ -0,0 +1,137 @@
+package com.ducvu.EmployeeManagement.repository;
+
+import com.ducvu.EmployeeManagement.exception.EmployeeAlreadyExistException;
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeFields;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchCriteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+public class EmployeeRepositoryTest {
+
+    @Autowired
+    private EmployeeRepository underTest;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        underTest.saveAll(List.of(
+                new Employee("Viet", "Vu", "ducvu6637@gmail.com", "IT"),
+                new Employee("Kelly", "Nguyen", "kellyN@gmail.com", "Customer Service"),
+                new Employee("Jon", "Nguyen", "Jonvt2@gmail.com", "Customer Service"),
+                new Employee("Jo_n", "Nguyen", "jon2@gmail.com", "IT")));
+    }
+
+    @Test
+    void shouldTellDuplicateEmailsFromOtherViolations() {
+        assertThatThrownBy(() -> underTest.saveAndFlush(new Employee("Viet", "Vu", "kellyN@gmail.com", "IT")))
+                .isInstanceOfSatisfying(DataIntegrityViolationException.class,
+                        ex -> assertThat(EmployeeAlreadyExistException.isDuplicateEmail(ex)).isTrue());
+        entityManager.clear();
+
+        assertThatThrownBy(() -> underTest.saveAndFlush(new Employee("Viet".repeat(100), "Vu", "new@gmail.com", "IT")))
+                .isInstanceOfSatisfying(DataIntegrityViolationException.class,
+                        ex -> assertThat(EmployeeAlreadyExistException.isDuplicateEmail(ex)).isFalse());
+    }
+
+    @Test
+    void shouldCountEmployeesPerDepartment() {
+        assertThat(underTest.countByDepartment()).containsExactlyInAnyOrder(
+                new DepartmentHeadcount("IT", 2),
+                new DepartmentHeadcount("Customer Service", 2));
+    }
+
+    @Test
+    void shouldMoveDepartmentAndBumpVersions() {
+        int updated = underTest.bulkUpdateDepartmentByDepartment("Customer Service", "Support");
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(underTest.findEmployeeByEmail("kellyN@gmail.com").orElseThrow())
+                .extracting(Employee::getDepartment, Employee::getVersion)
+                .containsExactly("Support", 1L);
+    }
+
+    @Test
+    void shouldDeleteByIdsInOneStatement() {
+        List<Long> ids = underTest.search(new EmployeeSearchCriteria("IT", null, null), 0L, 10).stream()
+                .map(Employee::getId)
+                .toList();
+
+        assertThat(underTest.bulkDeleteByIds(ids, Instant.now())).isEqualTo(2);
+        assertThat(underTest.count()).isEqualTo(2);
+        assertThat(underTest.deleteEmployeeById(ids.get(0), Instant.now())).isZero();
+    }
+
+    @Test
+    void shouldHideDeletedEmployeesAndFreeTheirEmail() {
+        Employee kelly = underTest.findEmployeeByEmail("kellyN@gmail.com").orElseThrow();
+        long before = underTest.count();
+
+        assertThat(underTest.deleteEmployeeById(kelly.getId(), Instant.now())).isEqualTo(1);
+        entityManager.clear();
+        Employee rehired = underTest.saveAndFlush(new Employee("Kelly", "Tran", "kellyN@gmail.com", "IT"));
+
+        assertThat(underTest.findById(kelly.getId())).isEmpty();
+        assertThat(underTest.findEmployeeByEmail("kellyN@gmail.com")).contains(rehired);
+        assertThat(underTest.search(new EmployeeSearchCriteria("Customer Service", null, null), 0L, 10))
+                .extracting(Employee::getEmail).containsExactly("Jonvt2@gmail.com");
+        assertThat(underTest.count()).isEqualTo(before);
+        assertThat(underTest.countByDepartment()).contains(new DepartmentHeadcount("Customer Service", 1));
+    }
+
+    @Test
+    void shouldSearchByDepartment() {
+        List<Employee> employees = underTest.search(new EmployeeSearchCriteria("IT", null, null), 0L, 10);
+
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("ducvu6637@gmail.com", "jon2@gmail.com");
+    }
+
+    @Test
+    void shouldSearchByCombinedNamePrefixesInIdOrder() {
+        List<Employee> employees = underTest.search(new EmployeeSearchCriteria(null, "J", "Ngu"), 0L, 10);
+
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("Jonvt2@gmail.com", "jon2@gmail.com");
+    }
+
+    @Test
+    void shouldTreatWildcardsInPrefixLiterally() {
+        List<Employee> employees = underTest.search(new EmployeeSearchCriteria(null, "Jo_", null), 0L, 10);
+
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("jon2@gmail.com");
+    }
+
+    @Test
+    void shouldSearchAfterCursorWithLimit() {
+        List<Employee> all = underTest.search(new EmployeeSearchCriteria("Customer Service", null, null), 0L, 10);
+
+        List<Employee> employees = underTest.search(
+                new EmployeeSearchCriteria("Customer Service", null, null), all.get(0).getId(), 1);
+
+        assertThat(employees).extracting(Employee::getEmail).containsExactly("Jonvt2@gmail.com");
+    }
+
+    @Test
+    void shouldSelectOnlyRequestedFields() {
+        List<EmployeeFields> employees = underTest.searchFields(
+                new EmployeeSearchCriteria("IT", null, null), List.of("id", "lastName"), 0L, 10);
+
+        assertThat(employees).extracting(EmployeeFields::lastName).containsExactly("Vu", "Nguyen");
+        assertThat(employees.get(0).id()).isNotNull();
+        assertThat(employees.get(0)).extracting(EmployeeFields::firstName, EmployeeFields::email,
+                EmployeeFields::department, EmployeeFields::version).containsOnlyNulls();
+    }
+}
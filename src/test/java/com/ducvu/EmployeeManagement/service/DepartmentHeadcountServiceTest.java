@@ -0,0 +1,58 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.DepartmentHeadcount;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class DepartmentHeadcountServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DepartmentHeadcountService underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new DepartmentHeadcountService(employeeRepository, meterRegistry);
+        given(employeeRepository.countByDepartment()).willReturn(List.of(
+                new DepartmentHeadcount("IT", 2),
+                new DepartmentHeadcount("HR", 1)));
+        underTest.reload();
+    }
+
+    @Test
+    void shouldAdjustHeadcountsIncrementally() {
+        underTest.added("IT");
+        underTest.moved("HR", "Sales", 1);
+        underTest.removed("IT", 1);
+
+        assertThat(underTest.getHeadcounts()).containsExactly(
+                new DepartmentHeadcount("IT", 2),
+                new DepartmentHeadcount("Sales", 1));
+    }
+
+    @Test
+    void shouldReplaceHeadcountsThatDriftedFromTheDatabase() {
+        underTest.added("IT");
+
+        underTest.reconcile();
+
+        assertThat(underTest.getHeadcounts()).containsExactly(
+                new DepartmentHeadcount("HR", 1),
+                new DepartmentHeadcount("IT", 2));
+        assertThat(meterRegistry.counter("employee.headcount.drift").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.EmployeeChange;
+import com.ducvu.EmployeeManagement.model.EmployeeChangePage;
+import com.ducvu.EmployeeManagement.repository.EmployeeChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class EmployeeChangeServiceTest {
+
+    @Autowired
+    private EmployeeChangeService underTest;
+
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        employeeChangeRepository.deleteAll();
+    }
+
+    @Test
+    void shouldHoldBackChangesCommittedBeforeAnEarlierSequence() throws Exception {
+        long before = underTest.getChanges(null, 10).nextCursor();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            underTest.deleted(1L);
+            recorded.countDown();
+            await(commit);
+        }));
+        await(recorded);
+        transactionTemplate.executeWithoutResult(status -> underTest.deleted(2L));
+
+        EmployeeChangePage whileRunning = underTest.getChanges(before, 10);
+        Long headWhileRunning = underTest.getHead();
+        commit.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        EmployeeChangePage afterCommit = underTest.getChanges(whileRunning.nextCursor(), 10);
+
+        assertThat(employeeChangeRepository.findAll()).extracting(EmployeeChange::getEmployeeId)
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(whileRunning.changes()).isEmpty();
+        assertThat(whileRunning.nextCursor()).isEqualTo(before);
+        assertThat(afterCommit.changes()).extracting(EmployeeChange::getEmployeeId).containsExactly(1L, 2L);
+        assertThat(headWhileRunning).isNull();
+        assertThat(underTest.getHead()).isEqualTo(afterCommit.nextCursor());
+    }
+
+    @Test
+    void shouldReleaseChangesOfRolledBackTransactions() {
+        long before = underTest.getChanges(null, 10).nextCursor();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            underTest.deleted(1L);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> underTest.deleted(2L));
+
+        assertThat(underTest.getChanges(before, 10).changes())
+                .extracting(EmployeeChange::getEmployeeId)
+                .containsExactly(2L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
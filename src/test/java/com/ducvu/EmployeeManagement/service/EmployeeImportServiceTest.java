@@ -0,0 +1,149 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeChange;
+import com.ducvu.EmployeeManagement.model.ImportResult;
+import com.ducvu.EmployeeManagement.model.ImportRowResult;
+import com.ducvu.EmployeeManagement.repository.EmployeeChangeRepository;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest(properties = "employee.import.batch-size=2")
+public class EmployeeImportServiceTest {
+
+    @Autowired
+    private EmployeeImportService underTest;
+
+    @SpyBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+        employeeChangeRepository.deleteAll();
+        employeeRepository.save(new Employee("Existing", "Employee", "existing@gmail.com", "testDP"));
+    }
+
+    @Test
+    void shouldImportJsonArrayAndReportEachRow() throws IOException {
+        String json = """
+                [
+                  {"firstName": "First1", "lastName": "Last1", "email": "first1@gmail.com", "department": "testDP"},
+                  {"firstName": "First2", "lastName": "Last2", "email": "existing@gmail.com", "department": "testDP"},
+                  {"firstName": "First3", "lastName": "Last3", "department": "testDP"},
+                  {"firstName": "First4", "lastName": "Last4", "email": "first1@gmail.com", "department": "testDP"},
+                  {"firstName": "First5", "lastName": "Last5", "email": "first5@gmail.com", "department": "testDP"}
+                ]
+                """;
+
+        ImportResult result = underTest.importJson(stream(json));
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.rows()).extracting(ImportRowResult::status).containsExactly(
+                ImportRowResult.Status.CREATED,
+                ImportRowResult.Status.DUPLICATE,
+                ImportRowResult.Status.INVALID,
+                ImportRowResult.Status.DUPLICATE,
+                ImportRowResult.Status.CREATED);
+        assertThat(employeeRepository.count()).isEqualTo(3);
+        assertThat(employeeRepository.findEmployeeByEmail("first5@gmail.com")).isPresent();
+        assertThat(employeeChangeRepository.findAll()).extracting(EmployeeChange::getEmail)
+                .containsExactlyInAnyOrder("first1@gmail.com", "first5@gmail.com");
+    }
+
+    @Test
+    void shouldImportCsvWithHeader() throws IOException {
+        String csv = """
+                firstName,lastName,email,department
+                First1,Last1,first1@gmail.com,testDP
+                First2,Last2,first2@gmail.com,"Customer Service"
+                First3,Last3,first3@gmail.com,testDP
+                """;
+
+        ImportResult result = underTest.importCsv(stream(csv));
+
+        assertThat(result.created()).isEqualTo(3);
+        assertThat(result.rejected()).isZero();
+        assertThat(employeeRepository.findEmployeeByEmail("first2@gmail.com"))
+                .map(Employee::getDepartment)
+                .hasValue("Customer Service");
+    }
+
+    @Test
+    void shouldKeepImportedRowsWhenInputIsMalformed() throws IOException {
+        String json = """
+                [
+                  {"firstName": "First1", "lastName": "Last1", "email": "first1@gmail.com", "department": "testDP"},
+                  {"firstName": "First2",
+                """;
+
+        ImportResult result = underTest.importJson(stream(json));
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.rows()).last()
+                .extracting(ImportRowResult::status)
+                .isEqualTo(ImportRowResult.Status.INVALID);
+        assertThat(employeeRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectRowsThatDoNotFitTheColumns() throws IOException {
+        String json = """
+                [
+                  {"firstName": "First1", "lastName": "Last1", "email": "first1@gmail.com", "department": "testDP"},
+                  {"firstName": "%s", "lastName": "Last2", "email": "first2@gmail.com", "department": "testDP"}
+                ]
+                """.formatted("F".repeat(Employee.NAME_LENGTH + 1));
+
+        ImportResult result = underTest.importJson(stream(json));
+
+        assertThat(result.rows()).extracting(ImportRowResult::status).containsExactly(
+                ImportRowResult.Status.CREATED,
+                ImportRowResult.Status.INVALID);
+        assertThat(result.rows().get(1).message()).isEqualTo("firstName is longer than 30 characters");
+        assertThat(employeeRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRetryFailedChunkRowByRow() throws IOException {
+        // the email check misses existing@gmail.com, as if it had been taken right after the check
+        doReturn(List.of()).when(employeeRepository).findExistingEmails(any());
+        String json = """
+                [
+                  {"firstName": "First1", "lastName": "Last1", "email": "first1@gmail.com", "department": "testDP"},
+                  {"firstName": "First2", "lastName": "Last2", "email": "existing@gmail.com", "department": "testDP"}
+                ]
+                """;
+
+        ImportResult result = underTest.importJson(stream(json));
+
+        assertThat(result.rows()).extracting(ImportRowResult::status).containsExactly(
+                ImportRowResult.Status.CREATED,
+                ImportRowResult.Status.DUPLICATE);
+        assertThat(employeeRepository.count()).isEqualTo(2);
+        assertThat(employeeChangeRepository.findAll()).extracting(EmployeeChange::getEmail)
+                .containsExactly("first1@gmail.com");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
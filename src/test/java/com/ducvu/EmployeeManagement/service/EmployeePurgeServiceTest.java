@@ -0,0 +1,123 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.ArchivedEmployee;
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.repository.DeletedEmployeeRepository;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class EmployeePurgeServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T00:00:00Z");
+    private static final Instant EXPIRED = NOW.minus(Duration.ofDays(31));
+
+    @TempDir
+    Path archiveDirectory;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DeletedEmployeeRepository deletedEmployeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeePurgeService underTest;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM employee");
+        underTest = new EmployeePurgeService(deletedEmployeeRepository, objectMapper,
+                Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofDays(30), 2, archiveDirectory);
+    }
+
+    @Test
+    void shouldArchiveThenPurgeEmployeesDeletedBeforeTheRetentionInBatches() throws IOException {
+        save("kept@gmail.com", null);
+        save("first@gmail.com", EXPIRED);
+        save("second@gmail.com", EXPIRED);
+        save("third@gmail.com", EXPIRED);
+        Long recent = save("recent@gmail.com", NOW.minus(Duration.ofDays(1)));
+
+        assertThat(underTest.purge()).isEqualTo(3);
+
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly("kept@gmail.com");
+        assertThat(deletedEmployeeRepository.findDeletedBefore(NOW, 10))
+                .extracting(ArchivedEmployee::id).containsExactly(recent);
+        assertThat(archived())
+                .allSatisfy(employee -> assertThat(employee.deletedAt()).isEqualTo(EXPIRED))
+                .extracting(ArchivedEmployee::email)
+                .containsExactly("first@gmail.com", "second@gmail.com", "third@gmail.com");
+    }
+
+    @Test
+    void shouldNotPurgeRestoredEmployee() throws IOException {
+        Long restored = save("restored@gmail.com", EXPIRED);
+        assertThat(deletedEmployeeRepository.restore(restored)).isEqualTo(1);
+
+        assertThat(underTest.purge()).isZero();
+
+        assertThat(employeeRepository.findById(restored)).isPresent();
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private Long save(String email, Instant deletedAt) {
+        Long id = employeeRepository.save(new Employee("First", "Last", email, "testDP")).getId();
+        if (deletedAt != null) {
+            jdbcTemplate.update("UPDATE employee SET deleted_at = ? WHERE id = ?", Timestamp.from(deletedAt), id);
+        }
+        return id;
+    }
+
+    private List<ArchivedEmployee> archived() throws IOException {
+        Path archive;
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            archive = files.reduce((first, second) -> {
+                throw new AssertionError("Expected a single archive file");
+            }).orElseThrow();
+        }
+        assertThat(archive.getFileName().toString()).isEqualTo("employees-20240301T000000Z.ndjson.gz");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(line -> {
+                        try {
+                            return objectMapper.readValue(line, ArchivedEmployee.class);
+                        } catch (IOException ex) {
+                            throw new AssertionError(ex);
+                        }
+                    })
+                    .toList();
+        }
+    }
+}
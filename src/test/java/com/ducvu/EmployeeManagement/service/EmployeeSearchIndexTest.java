@@ -0,0 +1,120 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchHit;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSearchIndexTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EmployeeSearchIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new EmployeeSearchIndex(employeeRepository, entityManager, transactionManager, meterRegistry);
+        given(employeeRepository.streamAllByOrderByIdAsc()).willReturn(Stream.of(
+                new Employee(1L, "Viet", "Vu", "ducvu6637@gmail.com", "IT"),
+                new Employee(2L, "Kelly", "Nguyen", "kellyN@gmail.com", "Customer Service"),
+                new Employee(3L, "Jon", "Nguyen", "Jonvt2@gmail.com", "Customer Service")));
+        underTest.rebuild();
+    }
+
+    @Test
+    void shouldFindMisspelledNamesRankedByMatchingTrigrams() {
+        List<EmployeeSearchHit> hits = underTest.search("kely nguyn", 10);
+
+        assertThat(hits).extracting(EmployeeSearchHit::id).containsExactly(2L, 3L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+        assertThat(hits.get(0).email()).isEqualTo("kellyN@gmail.com");
+    }
+
+    @Test
+    void shouldNotMatchUnrelatedQueries() {
+        assertThat(underTest.search("zzzz", 10)).isEmpty();
+        assertThat(underTest.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldReflectWritesImmediatelyOutsideATransaction() {
+        underTest.indexAfterCommit(new Employee(4L, "Kelley", "Tran", "ktran@gmail.com", "HR"));
+        underTest.indexAfterCommit(new Employee(2L, "Kelly", "Pham", "kellyN@gmail.com", "Customer Service"));
+        underTest.removeAfterCommit(3L);
+
+        assertThat(underTest.search("nguyen", 10)).isEmpty();
+        assertThat(underTest.search("kelly", 10)).extracting(EmployeeSearchHit::id).containsExactly(2L, 4L);
+        assertThat(underTest.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldKeepTheNewerDocumentWhenWritesArriveOutOfOrder() {
+        underTest.indexAfterCommit(new Employee(2L, "Kelly", "Pham", "kellyN@gmail.com", "Customer Service", 2L));
+        underTest.indexAfterCommit(new Employee(2L, "Kelly", "Tran", "kellyN@gmail.com", "Customer Service", 1L));
+
+        assertThat(underTest.search("pham", 10)).extracting(EmployeeSearchHit::id).containsExactly(2L);
+        assertThat(underTest.search("tran", 10)).isEmpty();
+
+        underTest.moveAfterCommit(List.of(2L), "Support");
+        underTest.indexAfterCommit(new Employee(2L, "Kelly", "Pham", "kellyN@gmail.com", "Customer Service", 2L));
+
+        assertThat(underTest.search("support", 10)).extracting(EmployeeSearchHit::id).containsExactly(2L);
+    }
+
+    @Test
+    void shouldMoveAndRemoveWholeDepartments() {
+        underTest.moveDepartmentAfterCommit("Customer Service", "Support");
+
+        assertThat(underTest.search("support", 10)).extracting(EmployeeSearchHit::id).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(underTest.search("customer service", 10)).isEmpty();
+
+        underTest.removeDepartmentAfterCommit("Support");
+
+        assertThat(underTest.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepWritesMadeWhileRebuilding() {
+        given(employeeRepository.streamAllByOrderByIdAsc()).willReturn(Stream.of(
+                        new Employee(1L, "Viet", "Vu", "ducvu6637@gmail.com", "IT"),
+                        new Employee(2L, "Kelly", "Nguyen", "kellyN@gmail.com", "Customer Service"))
+                .peek(employee -> {
+                    if (employee.getId() == 1L) {
+                        underTest.indexAfterCommit(new Employee(4L, "Kelley", "Tran", "ktran@gmail.com", "HR"));
+                        underTest.removeAfterCommit(2L);
+                    }
+                }));
+
+        underTest.rebuild();
+
+        assertThat(underTest.search("kelly", 10)).extracting(EmployeeSearchHit::id).containsExactly(4L);
+        assertThat(underTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReportEstimatedMemory() {
+        assertThat(meterRegistry.get("employee.search.index.documents").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("employee.search.index.memory").gauge().value()).isPositive();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.config.CacheConfig;
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+public class EmployeeServiceCacheTest {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService underTest;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCache(CacheConfig.EMPLOYEES).clear();
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        long employeeID = 99L;
+        Employee employee = new Employee(employeeID, "First", "Last", "firstlast@gmail.com", "testDP");
+        given(employeeRepository.findById(employeeID)).willReturn(Optional.of(employee));
+
+        underTest.getEmployeeById(employeeID);
+        Employee returnedEmployee = underTest.getEmployeeById(employeeID);
+
+        assertThat(returnedEmployee).isEqualTo(employee);
+        verify(employeeRepository, times(1)).findById(employeeID);
+    }
+
+    @Test
+    void shouldRefreshCacheOnUpdate() {
+        long employeeID = 99L;
+        Employee existingEmployee = new Employee(employeeID, "First", "Last", "firstlast@gmail.com", "testDP");
+        Employee updatedEmployee = new Employee(employeeID, "UFirst", "ULast", "ufirstlast@gmail.com", "testDP");
+        given(employeeRepository.findById(employeeID)).willReturn(Optional.of(existingEmployee));
+        given(employeeRepository.saveAndFlush(any(Employee.class))).willReturn(updatedEmployee);
+
+        underTest.getEmployeeById(employeeID);
+        underTest.updateEmployee(updatedEmployee, employeeID);
+
+        assertThat(underTest.getEmployeeById(employeeID).getFirstName()).isEqualTo("UFirst");
+        verify(employeeRepository, times(2)).findById(employeeID);
+    }
+
+    @Test
+    void shouldEvictCacheOnDelete() {
+        long employeeID = 99L;
+        Employee employee = new Employee(employeeID, "First", "Last", "firstlast@gmail.com", "testDP");
+        given(employeeRepository.findById(employeeID)).willReturn(Optional.of(employee));
+        given(employeeRepository.deleteEmployeeById(eq(employeeID), any())).willReturn(1);
+
+        underTest.getEmployeeById(employeeID);
+        underTest.deleteEmployee(employeeID);
+
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES).get(employeeID)).isNull();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.config.CacheConfig;
+import com.ducvu.EmployeeManagement.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica. They are not replicated, so which one
+ * served a read shows in the rows it returns.
+ */
+@SpringBootTest(properties = "employee.datasource.replica.jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1")
+public class EmployeeServiceReplicaTest {
+
+    @Autowired
+    private EmployeeService underTest;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Employee added;
+
+    @BeforeEach
+    void setUp() {
+        // the test context binds a mock request to every test; start outside of one
+        RequestContextHolder.resetRequestAttributes();
+        new ResourceDatabasePopulator(new ClassPathResource("db/h2/schema.sql")).execute(replicaDataSource);
+        new JdbcTemplate(replicaDataSource).update(
+                "INSERT INTO employee (first_name, last_name, email, department) VALUES ('Replica', 'Only', 'replica@gmail.com', 'IT')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        if (added != null) {
+            underTest.deleteEmployee(added.getId());
+        }
+    }
+
+    @Test
+    void shouldWriteToPrimaryAndReadFromReplica() {
+        added = underTest.addEmployee(new Employee("Primary", "Only", "primary@gmail.com", "IT"));
+
+        assertThat(emails()).contains("replica@gmail.com").doesNotContain("primary@gmail.com");
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "SELECT COUNT(*) FROM employee WHERE email = 'primary@gmail.com' AND deleted_at IS NULL", Integer.class)).isOne();
+    }
+
+    @Test
+    void shouldReadOwnWritesWithinRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        added = underTest.addEmployee(new Employee("Primary", "Only", "primary@gmail.com", "IT"));
+
+        assertThat(emails()).contains("primary@gmail.com").doesNotContain("replica@gmail.com");
+    }
+
+    @Test
+    void shouldCacheEmployeesReadFromPrimary() {
+        added = underTest.addEmployee(new Employee("Primary", "Only", "primary@gmail.com", "IT"));
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.EMPLOYEES)).clear();
+
+        assertThat(underTest.getEmployeeById(added.getId()).getEmail()).isEqualTo("primary@gmail.com");
+    }
+
+    private List<String> emails() {
+        return underTest.getEmployees(null, EmployeeService.MAX_PAGE_SIZE).employees().stream()
+                .map(Employee::getEmail)
+                .toList();
+    }
+}
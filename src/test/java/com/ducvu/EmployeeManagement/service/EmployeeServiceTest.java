@@ -2,8 +2,21 @@ package com.ducvu.EmployeeManagement.service;
 
 import com.ducvu.EmployeeManagement.exception.EmployeeAlreadyExistException;
 import com.ducvu.EmployeeManagement.exception.EmployeeNotFoundException;
+import com.ducvu.EmployeeManagement.exception.InvalidRequestException;
+import com.ducvu.EmployeeManagement.exception.PreconditionFailedException;
+import com.ducvu.EmployeeManagement.model.BulkDelete;
+import com.ducvu.EmployeeManagement.model.BulkDepartmentUpdate;
 import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.EmployeeFields;
+import com.ducvu.EmployeeManagement.model.EmployeeFieldsPage;
+import com.ducvu.EmployeeManagement.model.EmployeePage;
+import com.ducvu.EmployeeManagement.model.EmployeePatch;
+import com.ducvu.EmployeeManagement.model.EmployeeSearchCriteria;
+import com.ducvu.EmployeeManagement.repository.DeletedEmployeeRepository;
 import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,15 +25,26 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 
 
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -29,8 +53,22 @@ import static org.mockito.Mockito.verify;
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceTest {
 
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private DeletedEmployeeRepository deletedEmployeeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private DepartmentHeadcountService departmentHeadcountService;
+    @Mock
+    private EmployeeChangeService employeeChangeService;
+    @Mock
+    private EmployeeSearchIndex employeeSearchIndex;
+    @Mock
+    private Clock clock;
     @InjectMocks
     private EmployeeService underTest;
 
@@ -44,58 +82,189 @@ public class EmployeeServiceTest {
         verify(employeeRepository).findAll();
     }
 
+    @Test
+    void shouldReturnNextCursorWhenMoreEmployeesExist() {
+        List<Employee> employees = List.of(
+                new Employee(5L, "First1", "Last1", "test1@gmail.com", "testDP"),
+                new Employee(6L, "First2", "Last2", "test2@gmail.com", "testDP"),
+                new Employee(7L, "First3", "Last3", "test3@gmail.com", "testDP"));
+
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(4L, PageRequest.of(0, 3)))
+                .willReturn(employees);
+
+        EmployeePage page = underTest.getEmployees(4L, 2);
+
+        assertThat(page.employees()).extracting(Employee::getId).containsExactly(5L, 6L);
+        assertThat(page.nextCursor()).isEqualTo(6L);
+    }
+
+    @Test
+    void shouldReturnNoCursorOnLastPage() {
+        List<Employee> employees = List.of(new Employee(5L, "First1", "Last1", "test1@gmail.com", "testDP"));
+
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, EmployeeService.MAX_PAGE_SIZE + 1)))
+                .willReturn(employees);
+
+        EmployeePage page = underTest.getEmployees(null, Integer.MAX_VALUE);
+
+        assertThat(page.employees()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldSearchEmployeesWithCursor() {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria("testDP", "Fi", null);
+        List<Employee> employees = List.of(
+                new Employee(5L, "First1", "Last1", "test1@gmail.com", "testDP"),
+                new Employee(8L, "First2", "Last2", "test2@gmail.com", "testDP"));
+
+        given(employeeRepository.search(criteria, 0L, 2)).willReturn(employees);
+
+        EmployeePage page = underTest.searchEmployees(criteria, null, 1);
+
+        assertThat(page.employees()).extracting(Employee::getId).containsExactly(5L);
+        assertThat(page.nextCursor()).isEqualTo(5L);
+    }
+
+    @Test
+    void shouldSelectRequestedFieldsWithIdInDeclaredOrder() {
+        EmployeeSearchCriteria all = new EmployeeSearchCriteria(null, null, null);
+        List<String> fields = List.of("id", "firstName", "lastName");
+        List<EmployeeFields> employees = List.of(
+                new EmployeeFields(5L, "First1", "Last1", null, null, null),
+                new EmployeeFields(6L, "First2", "Last2", null, null, null));
+
+        given(employeeRepository.searchFields(all, fields, 0L, 2)).willReturn(employees);
+
+        EmployeeFieldsPage page = underTest.getEmployees(null, 1, List.of("lastName", "firstName"));
+
+        assertThat(page.employees()).hasSize(1);
+        assertThat(page.nextCursor()).isEqualTo(5L);
+    }
+
+    @Test
+    void shouldRejectUnknownField() {
+        assertThatThrownBy(() -> underTest.getEmployees(null, 10, List.of("firstName", "salary")))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("salary");
+        verify(employeeRepository, never()).searchFields(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldDeriveCollectionETagFromChangeLogHead() {
+        given(employeeChangeService.getHead()).willReturn(42L);
+
+        assertThat(underTest.getEmployeesETag()).isEqualTo("W/\"42\"");
+    }
+
+    @Test
+    void shouldNotTagCollectionWhileEarlierWriteIsRunning() {
+        given(employeeChangeService.getHead()).willReturn(null);
+
+        assertThat(underTest.getEmployeesETag()).isNull();
+    }
+
     @Test
     void shouldAddEmployee() {
         Employee employee = new Employee("First", "Last", "firstlast@gmail.com", "testDP");
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         underTest.addEmployee(employee);
 
-        verify(employeeRepository).save(employeeArgumentCaptor.capture());
+        verify(employeeRepository).saveAndFlush(employeeArgumentCaptor.capture());
         Employee value = employeeArgumentCaptor.getValue();
         assertThat(value.getFirstName()).isEqualTo("First");
         assertThat(value.getLastName()).isEqualTo("Last");
         assertThat(value.getEmail()).isEqualTo("firstlast@gmail.com");
         assertThat(value.getDepartment()).isEqualTo("testDP");
+        verify(employeeChangeService).created(employee);
+        verify(departmentHeadcountService).added("testDP");
     }
 
     @Test
     void shouldThrowExceptionWhenEmailAlreadyExisted() {
         Employee employee = new Employee("First", "Last", "firstlast@gmail.com", "testDP");
 
-        given(employeeRepository.findEmployeeByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(duplicate("uk_employee_live_email"));
 
         assertThatThrownBy(() -> underTest.addEmployee(employee))
                 .isInstanceOf(EmployeeAlreadyExistException.class)
                 .hasMessageContaining(employee.getEmail() + " already exist!");
 
-        verify(employeeRepository, never()).save(any());
+        verify(employeeRepository, never()).findEmployeeByEmail(any());
+    }
+
+    @Test
+    void shouldNotReportOtherConstraintViolationsAsDuplicateEmail() {
+        Employee employee = new Employee("First".repeat(10), "Last", "firstlast@gmail.com", "testDP");
+        DataIntegrityViolationException tooLong = new DataIntegrityViolationException("could not execute statement",
+                new DataException("could not execute statement", new SQLException("Value too long for column", "22001")));
+        given(employeeRepository.saveAndFlush(employee)).willThrow(tooLong);
+
+        assertThatThrownBy(() -> underTest.addEmployee(employee)).isSameAs(tooLong);
+
+        verify(employeeChangeService, never()).created(any());
     }
 
     @Test
     void shouldDeleteEmployeeIfExisted() {
         long id = 1;
 
-        given(employeeRepository.existsById(id))
-                .willReturn(true);
+        given(clock.instant()).willReturn(NOW);
+        given(deletedEmployeeRepository.findDepartmentById(id))
+                .willReturn(Optional.of("testDP"));
+        given(employeeRepository.deleteEmployeeById(id, NOW))
+                .willReturn(1);
 
         underTest.deleteEmployee(id);
 
-        verify(employeeRepository).deleteById(id);
+        verify(employeeRepository).deleteEmployeeById(id, NOW);
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(employeeChangeService).deleted(id);
+        verify(employeeSearchIndex).removeAfterCommit(id);
+        verify(departmentHeadcountService).removed("testDP", 1);
     }
 
     @Test
     void shouldThrowExceptionWhenEmployeeDoesNotExist() {
         long employeeID = 1;
 
-        given(employeeRepository.existsById(employeeID))
-                .willReturn(false);
+        given(employeeRepository.deleteEmployeeById(eq(employeeID), any()))
+                .willReturn(0);
 
         assertThatThrownBy(() -> underTest.deleteEmployee(employeeID))
                 .isInstanceOf(EmployeeNotFoundException.class)
                 .hasMessageContaining("No employee found with id: " + employeeID);
 
-        verify(employeeRepository, never()).deleteById(any());
+        verify(employeeChangeService, never()).deleted(anyLong());
+    }
+
+    @Test
+    void shouldRestoreDeletedEmployee() {
+        long id = 1;
+        Employee employee = new Employee(id, "First", "Last", "firstlast@gmail.com", "testDP", 2L);
+        given(deletedEmployeeRepository.restore(id)).willReturn(1);
+        given(employeeRepository.findById(id)).willReturn(Optional.of(employee));
+
+        assertThat(underTest.restoreEmployee(id)).isEqualTo(employee);
+
+        verify(employeeChangeService).created(employee);
+        verify(employeeSearchIndex).indexAfterCommit(employee);
+        verify(departmentHeadcountService).added("testDP");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenRestoredEmailIsTaken() {
+        long id = 1;
+        given(deletedEmployeeRepository.restore(id))
+                .willThrow(new DuplicateKeyException("restore", new SQLException(
+                        "Unique index or primary key violation: \"PUBLIC.UK_EMPLOYEE_LIVE_EMAIL_INDEX_7 ON PUBLIC.EMPLOYEE(LIVE_EMAIL)\"", "23505")));
+
+        assertThatThrownBy(() -> underTest.restoreEmployee(id))
+                .isInstanceOf(EmployeeAlreadyExistException.class);
+
+        verify(employeeChangeService, never()).created(any());
     }
 
     @Test
@@ -135,9 +304,8 @@ public class EmployeeServiceTest {
         Employee existingEmployee = new Employee(employeeID, "First", "Last", "firstlast@gmail.com", "testDP");
         Employee updatedEmployee = new Employee("UFirst", "ULast", "Ufirstlast@gmail.com", "testDP");
 
-        given(employeeRepository.findEmployeeByEmail(updatedEmployee.getEmail())).willReturn(Optional.empty());
         given(employeeRepository.findById(employeeID)).willReturn(Optional.of(existingEmployee));
-        given(employeeRepository.save(any(Employee.class))).willReturn(updatedEmployee);
+        given(employeeRepository.saveAndFlush(any(Employee.class))).willReturn(updatedEmployee);
 
 
         Employee result = assertDoesNotThrow(() -> underTest.updateEmployee(updatedEmployee, employeeID));
@@ -150,7 +318,8 @@ public class EmployeeServiceTest {
 
 
         verify(employeeRepository, times(1)).findById(employeeID);
-        verify(employeeRepository, times(1)).save(any(Employee.class));
+        verify(employeeRepository, times(1)).saveAndFlush(any(Employee.class));
+        verify(employeeRepository, never()).findEmployeeByEmail(any());
 
     }
 
@@ -159,13 +328,15 @@ public class EmployeeServiceTest {
         Employee existingEmployee = new Employee(1L, "First", "Last", "existing@gmail.com", "testDP");
         Employee newEmployee = new Employee("UFirst", "ULast", "existing@gmail.com", "testDP");
 
-        given(employeeRepository.findEmployeeByEmail(newEmployee.getEmail())).willReturn(Optional.of(existingEmployee));
+        Employee employeeToUpdate = new Employee(2L, "UFirst", "ULast", "other@gmail.com", "testDP");
 
-        assertThatThrownBy(() -> underTest.updateEmployee(newEmployee, 1l))
-                .isInstanceOf(EmployeeAlreadyExistException.class);
+        given(employeeRepository.findById(2L)).willReturn(Optional.of(employeeToUpdate));
+        given(employeeRepository.saveAndFlush(employeeToUpdate))
+                .willThrow(duplicate("uk_employee_live_email"));
 
-        verify(employeeRepository, never()).findById(anyLong());
-        verify(employeeRepository, never()).save(any(Employee.class));
+        assertThatThrownBy(() -> underTest.updateEmployee(newEmployee, 2L))
+                .isInstanceOf(EmployeeAlreadyExistException.class)
+                .hasMessageContaining(existingEmployee.getEmail() + " already exist!");
     }
 
     @Test
@@ -180,7 +351,94 @@ public class EmployeeServiceTest {
 
 
         verify(employeeRepository, times(1)).findById(anyLong());
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void shouldPatchOnlyProvidedFields() {
+        long employeeID = 99L;
+        Employee existingEmployee = new Employee(employeeID, "First", "Last", "firstlast@gmail.com", "testDP", 2L);
+
+        given(employeeRepository.findById(employeeID)).willReturn(Optional.of(existingEmployee));
+        given(employeeRepository.saveAndFlush(existingEmployee)).willReturn(existingEmployee);
+
+        Employee result = underTest.patchEmployee(employeeID, new EmployeePatch(null, null, null, "newDP"), Set.of(2L));
+
+        assertThat(result.getFirstName()).isEqualTo("First");
+        assertThat(result.getEmail()).isEqualTo("firstlast@gmail.com");
+        assertThat(result.getDepartment()).isEqualTo("newDP");
+        verify(employeeRepository).saveAndFlush(existingEmployee);
+        verify(employeeSearchIndex).indexAfterCommit(existingEmployee);
+    }
+
+    @Test
+    void shouldNotWriteNoOpPatch() {
+        long employeeID = 99L;
+        Employee existingEmployee = new Employee(employeeID, "First", "Last", "firstlast@gmail.com", "testDP", 2L);
+
+        given(employeeRepository.findById(employeeID)).willReturn(Optional.of(existingEmployee));
+
+        Employee result = underTest.patchEmployee(employeeID, new EmployeePatch("First", null, null, "testDP"), null);
+
+        assertThat(result).isSameAs(existingEmployee);
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
     }
 
+    @Test
+    void shouldRejectPatchOfStaleVersion() {
+        long employeeID = 99L;
+        Employee existingEmployee = new Employee(employeeID, "First", "Last", "firstlast@gmail.com", "testDP", 3L);
+
+        given(employeeRepository.findById(employeeID)).willReturn(Optional.of(existingEmployee));
+
+        assertThatThrownBy(() -> underTest.patchEmployee(employeeID, new EmployeePatch("UFirst", null, null, null),
+                Set.of(2L)))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    void shouldUpdateDepartmentsByIdsInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, EmployeeService.BULK_CHUNK_SIZE + 1).boxed().toList();
+
+        given(employeeRepository.bulkUpdateDepartmentByIds(ids.subList(0, EmployeeService.BULK_CHUNK_SIZE), "newDP"))
+                .willReturn(EmployeeService.BULK_CHUNK_SIZE);
+        given(employeeRepository.bulkUpdateDepartmentByIds(ids.subList(EmployeeService.BULK_CHUNK_SIZE, ids.size()), "newDP"))
+                .willReturn(1);
+
+        assertThat(underTest.updateDepartments(new BulkDepartmentUpdate(ids, null, "newDP")).affected())
+                .isEqualTo(EmployeeService.BULK_CHUNK_SIZE + 1);
+    }
+
+    @Test
+    void shouldUpdateDepartmentsByCurrentDepartment() {
+        given(employeeRepository.bulkUpdateDepartmentByDepartment("oldDP", "newDP")).willReturn(42);
+
+        assertThat(underTest.updateDepartments(new BulkDepartmentUpdate(null, "oldDP", "newDP")).affected())
+                .isEqualTo(42);
+    }
+
+    @Test
+    void shouldRejectBulkUpdateWithBothSelectors() {
+        assertThatThrownBy(() -> underTest.updateDepartments(new BulkDepartmentUpdate(List.of(1L), "oldDP", "newDP")))
+                .isInstanceOf(InvalidRequestException.class);
+
+        verify(employeeRepository, never()).bulkUpdateDepartmentByIds(any(), any());
+        verify(employeeRepository, never()).bulkUpdateDepartmentByDepartment(any(), any());
+    }
+
+    @Test
+    void shouldDeleteEmployeesByDepartment() {
+        given(employeeRepository.bulkDeleteByDepartment(eq("oldDP"), any())).willReturn(7);
+
+        assertThat(underTest.deleteEmployees(new BulkDelete(null, "oldDP")).affected()).isEqualTo(7);
+        verify(employeeChangeService).deletedByDepartment("oldDP");
+        verify(departmentHeadcountService).removed("oldDP", 7);
+    }
+
+    private static DataIntegrityViolationException duplicate(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement", new ConstraintViolationException(
+                "could not execute statement", new SQLException("Duplicate entry", "23000"), constraintName));
+    }
 }
@@ -0,0 +1,206 @@
+package com.ducvu.EmployeeManagement.service;
+
+import com.ducvu.EmployeeManagement.exception.WriteQueueFullException;
+import com.ducvu.EmployeeManagement.load.EmployeeInvariants;
+import com.ducvu.EmployeeManagement.model.Employee;
+import com.ducvu.EmployeeManagement.model.WriteStatus;
+import com.ducvu.EmployeeManagement.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "employee.writes.async.enabled=true")
+public class EmployeeWriteBehindServiceTest {
+
+    @Autowired
+    private EmployeeWriteBehindService underTest;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private Employee existing;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.deleteAll();
+        existing = employeeRepository.save(new Employee("Existing", "Employee", "existing@gmail.com", "testDP"));
+        context.getBean(EmployeeSearchIndex.class).rebuild();
+        context.getBean(DepartmentHeadcountService.class).reload();
+    }
+
+    @Test
+    void shouldWriteQueuedEmployeesAndReportEachResult() throws InterruptedException {
+        List<UUID> trackingIds = List.of(
+                underTest.submitAdd(new Employee("First1", "Last1", "first1@gmail.com", "testDP")).trackingId(),
+                underTest.submitAdd(new Employee("First2", "Last2", "first1@gmail.com", "testDP")).trackingId(),
+                underTest.submitAdd(new Employee("First3", "Last3", "existing@gmail.com", "testDP")).trackingId(),
+                underTest.submitUpdate(new Employee("UFirst", "ULast", "existing@gmail.com", "newDP"), existing.getId()).trackingId(),
+                underTest.submitUpdate(new Employee("UFirst", "ULast", "missing@gmail.com", "newDP"), -1L).trackingId());
+
+        List<WriteStatus> statuses = awaitCompletion(trackingIds);
+
+        assertThat(statuses).extracting(WriteStatus::state).containsExactly(
+                WriteStatus.State.SUCCEEDED,
+                WriteStatus.State.FAILED,
+                WriteStatus.State.FAILED,
+                WriteStatus.State.SUCCEEDED,
+                WriteStatus.State.FAILED);
+        assertThat(statuses.get(1).error()).isEqualTo("first1@gmail.com already exist!");
+        assertThat(statuses.get(3).employeeId()).isEqualTo(existing.getId());
+        assertThat(employeeRepository.count()).isEqualTo(2);
+        assertThat(employeeRepository.findById(existing.getId()).orElseThrow().getDepartment()).isEqualTo("newDP");
+        assertThat(EmployeeInvariants.violations(context)).isEmpty();
+    }
+
+    @Test
+    void shouldWriteEachBatchWithOneInsertAndOneFlush() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EmployeeService employeeService = mock(EmployeeService.class);
+        given(employeeService.updateEmployees(any())).willAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return List.of();
+        });
+        EmployeeWriteBehindService service = new EmployeeWriteBehindService(employeeService, employeeRepository,
+                transactionManager, cacheManager, new SimpleMeterRegistry(), 10, 10, Duration.ofMinutes(1), 100);
+        service.start();
+        try {
+            service.submitUpdate(new Employee("UFirst", "ULast", "existing@gmail.com", "newDP"), existing.getId());
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            Employee first = new Employee("First1", "Last1", "first1@gmail.com", "testDP");
+            Employee second = new Employee("First2", "Last2", "first2@gmail.com", "testDP");
+            service.submitAdd(first);
+            service.submitAdd(second);
+        } finally {
+            release.countDown();
+            service.stop();
+        }
+
+        verify(employeeService).addEmployees(List.of(
+                new Employee("First1", "Last1", "first1@gmail.com", "testDP"),
+                new Employee("First2", "Last2", "first2@gmail.com", "testDP")));
+        verify(employeeService, never()).addEmployee(any());
+        verify(employeeService, never()).updateEmployee(any(), any());
+    }
+
+    @Test
+    void shouldRetryCreatesAsNewEmployeesWhenTheBatchFailsAfterInserting() {
+        EmployeeService real = context.getBean(EmployeeService.class);
+        EmployeeService employeeService = mock(EmployeeService.class, delegatesTo(real));
+        willAnswer(invocation -> {
+            real.addEmployees(invocation.getArgument(0));
+            throw new IllegalStateException("Change log unavailable");
+        }).given(employeeService).addEmployees(any());
+        List<Employee> retried = new ArrayList<>();
+        willAnswer(invocation -> {
+            Employee e = invocation.getArgument(0);
+            retried.add(new Employee(e.getId(), e.getFirstName(), e.getLastName(), e.getEmail(), e.getDepartment(),
+                    e.getVersion()));
+            return real.addEmployee(e);
+        }).given(employeeService).addEmployee(any());
+        EmployeeWriteBehindService service = new EmployeeWriteBehindService(employeeService, employeeRepository,
+                transactionManager, cacheManager, new SimpleMeterRegistry(), 10, 10, Duration.ofMinutes(1), 100);
+        service.start();
+        UUID trackingId = service.submitAdd(new Employee("First1", "Last1", "first1@gmail.com", "testDP")).trackingId();
+
+        service.stop();
+
+        // the rolled back insert set an id and version, which would make the retry merge a row that does not exist
+        assertThat(retried).singleElement().satisfies(e -> {
+            assertThat(e.getId()).isNull();
+            assertThat(e.getVersion()).isNull();
+        });
+        WriteStatus status = service.getStatus(trackingId);
+        assertThat(status.state()).isEqualTo(WriteStatus.State.SUCCEEDED);
+        assertThat(employeeRepository.findById(status.employeeId()).orElseThrow().getEmail())
+                .isEqualTo("first1@gmail.com");
+        assertThat(employeeRepository.count()).isEqualTo(2);
+        assertThat(EmployeeInvariants.violations(context)).isEmpty();
+    }
+
+    @Test
+    void shouldWriteQueuedEmployeesBeforeStoppingAndRejectLaterOnes() {
+        EmployeeWriteBehindService service = new EmployeeWriteBehindService(context.getBean(EmployeeService.class),
+                employeeRepository, transactionManager, cacheManager, new SimpleMeterRegistry(), 10, 10,
+                Duration.ofMinutes(1), 100);
+        service.start();
+        UUID trackingId = service.submitAdd(new Employee("First1", "Last1", "first1@gmail.com", "testDP")).trackingId();
+
+        service.stop();
+
+        assertThat(service.getStatus(trackingId).state()).isEqualTo(WriteStatus.State.SUCCEEDED);
+        assertThatThrownBy(() -> service.submitAdd(new Employee("First2", "Last2", "first2@gmail.com", "testDP")))
+                .isInstanceOf(WriteQueueFullException.class);
+        assertThat(employeeRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectWritesWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EmployeeService employeeService = mock(EmployeeService.class);
+        given(employeeService.addEmployees(any())).willAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+        EmployeeWriteBehindService service = new EmployeeWriteBehindService(employeeService, employeeRepository,
+                transactionManager, cacheManager, new SimpleMeterRegistry(), 1, 10, Duration.ofMinutes(1), 100);
+        service.start();
+        try {
+            service.submitAdd(new Employee("First1", "Last1", "first1@gmail.com", "testDP"));
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            service.submitAdd(new Employee("First2", "Last2", "first2@gmail.com", "testDP"));
+
+            assertThatThrownBy(() -> service.submitAdd(new Employee("First3", "Last3", "first3@gmail.com", "testDP")))
+                    .isInstanceOf(WriteQueueFullException.class);
+        } finally {
+            release.countDown();
+            service.stop();
+        }
+    }
+
+    private List<WriteStatus> awaitCompletion(List<UUID> trackingIds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            List<WriteStatus> statuses = trackingIds.stream().map(underTest::getStatus).toList();
+            if (statuses.stream().noneMatch(status -> status.state() == WriteStatus.State.PENDING)
+                    || System.nanoTime() > deadline) {
+                return statuses;
+            }
+            Thread.sleep(20);
+        }
+    }
+}